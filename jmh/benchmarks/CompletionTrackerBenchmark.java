@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import utils.CompletionTracker;
+
+/**
+ * Cost of recording one task completion: the shared AtomicInteger + CountDownLatch the
+ * strategies used to update per task, against the striped {@link CompletionTracker}.
+ *
+ * As in a run, a strategy thread stays parked waiting on the latch and the tracker for the
+ * whole iteration, so the completions are measured with a waiter present.
+ *
+ * Scaling shows up when the same benchmark is run with more threads, e.g.:
+ *
+ * <pre>
+ * for t in 1 2 4 8 16; do java -jar target/benchmarks.jar CompletionTrackerBenchmark -t $t; done
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 3, jvmArgsAppend = {"--enable-preview"})
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class CompletionTrackerBenchmark {
+
+    private AtomicInteger completedTasks;
+    private CountDownLatch latch;
+    private CompletionTracker tracker;
+    private Thread waiter;
+
+    // Fresh per iteration so the latch never reaches zero and both sides start from clean lines
+    @Setup(Level.Iteration)
+    public void setUp(BenchmarkParams params) {
+        completedTasks = new AtomicInteger();
+        latch = new CountDownLatch(Integer.MAX_VALUE);
+        tracker = new CompletionTracker(Long.MAX_VALUE);
+        boolean onTracker = params.getBenchmark().endsWith("completionTracker");
+        waiter = Thread.ofPlatform().daemon().name("completion-waiter").start(() -> {
+            try {
+                if (onTracker) {
+                    tracker.await(1, TimeUnit.DAYS);
+                } else {
+                    latch.await();
+                }
+            } catch (InterruptedException e) {
+                // iteration over
+            }
+        });
+        // Measure with the waiter already parked
+        while (waiter.getState() != Thread.State.WAITING && waiter.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        waiter.interrupt();
+        waiter.join();
+    }
+
+    @Benchmark
+    public void atomicAndLatch() {
+        completedTasks.incrementAndGet();
+        latch.countDown();
+    }
+
+    @Benchmark
+    public void completionTracker() {
+        tracker.succeeded();
+        tracker.finished();
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.Metrics;
+import strategies.BenchmarkStrategy;
+import strategies.StrategyFactory;
+
+/**
+ * Every BenchmarkStrategy x task type x task count, measured under identical warm-up and forking.
+ *
+ * One benchmark operation is a full {@code execute(taskType, taskCount)} run; the {@code tasks}
+ * secondary metric reports the same result in tasks/sec. Build and run with:
+ *
+ * <pre>
+ * mvn -P jmh package
+ * java -jar target/benchmarks.jar StrategyBenchmark -p taskType=IO -p taskCount=10000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"--enable-preview"})
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 2, timeUnit = TimeUnit.SECONDS)
+public class StrategyBenchmark {
+
+    @Param({"Platform", "Virtual", "ForkJoin", "ForkJoinRanges", "StructuredScoped", "StructuredDeadline", "StructuredHedged", "StructuredBatching", "StructuredWindow", "Adaptive", "Pipeline", "Partitioned", "Flow", "FlowPool", "DagVirtual", "DagForkJoin", "DagStructured", "DagFuture"})
+    public String strategy;
+
+    @Param({"CPU", "IO", "MIXED", "MEMORY"})
+    public String taskType;
+
+    @Param({"1000", "10000"})
+    public int taskCount;
+
+    private BenchmarkStrategy benchmarkStrategy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        benchmarkStrategy = StrategyFactory.create(strategy);
+    }
+
+    /** Per-iteration task counter, reported by JMH as an extra throughput metric. */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class TaskCounter {
+        public long tasks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tasks = 0;
+        }
+    }
+
+    @Benchmark
+    public Metrics execute(TaskCounter counter) throws InterruptedException {
+        Metrics metrics = benchmarkStrategy.execute(taskType, taskCount);
+        counter.tasks += metrics.completedTasks;
+        return metrics;
+    }
+}
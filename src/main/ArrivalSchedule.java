@@ -0,0 +1,167 @@
+package main;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleUnaryOperator;
+
+import utils.LiveMetrics;
+
+/**
+ * Decides when each task is released to a strategy.
+ *
+ * The closed schedule releases tasks back to back (the classic burst). Open schedules
+ * precompute intended release times for a target rate profile and make the submitting thread
+ * wait for each one. {@link #next(int)} returns the <em>intended</em> release time, so latency
+ * measured from it includes any delay caused by a saturated executor pushing back on the
+ * submitter (coordinated-omission correction).
+ *
+ * An open schedule is single-use and must only be driven by one submitting thread.
+ */
+public class ArrivalSchedule {
+
+    private final String description;
+    private final long[] offsetsNanos;     // null for the closed schedule
+    private final double targetRate;
+
+    private boolean started;
+    private long originNanos;
+    private long lastReleaseNanos;
+    private int released;
+
+    private ArrivalSchedule(String description, long[] offsetsNanos, double targetRate) {
+        this.description = description;
+        this.offsetsNanos = offsetsNanos;
+        this.targetRate = targetRate;
+    }
+
+    /** Releases every task immediately: the burst model the strategies were built around. */
+    public static ArrivalSchedule closed() {
+        return new ArrivalSchedule("Closed burst", null, 0);
+    }
+
+    public static ArrivalSchedule constant(double ratePerSec, Duration duration) {
+        return open("Constant " + ratePerSec + "/s", t -> ratePerSec, duration, null);
+    }
+
+    public static ArrivalSchedule poisson(double ratePerSec, Duration duration, long seed) {
+        return open("Poisson " + ratePerSec + "/s", t -> ratePerSec, duration, new SplittableRandom(seed));
+    }
+
+    /**
+     * Rate grows linearly from {@code fromRate} to {@code toRate} over the duration. Either end
+     * may be 0 (e.g. a ramp up from idle): task k is released when the expected count
+     * {@code fromRate * t + slope * t^2 / 2} reaches k.
+     */
+    public static ArrivalSchedule ramp(double fromRate, double toRate, Duration duration) {
+        if (!(fromRate >= 0 && toRate >= 0) || fromRate + toRate == 0) {
+            throw new IllegalArgumentException("Ramp rates must be non-negative and not both zero: " + fromRate + " -> " + toRate);
+        }
+        double seconds = seconds(duration);
+        double slope = (toRate - fromRate) / seconds;
+        long[] offsets = new long[1024];
+        int count = 0;
+        double t = 0;
+        while (t < seconds) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = (long) (t * 1e9);
+            // Past the last arrival of a ramp down to 0 the root is NaN, which ends the loop
+            t = slope == 0 ? count / fromRate : (Math.sqrt(fromRate * fromRate + 2 * slope * count) - fromRate) / slope;
+        }
+        return new ArrivalSchedule("Ramp " + fromRate + "->" + toRate + "/s", Arrays.copyOf(offsets, count), count / seconds);
+    }
+
+    /** Rate starts at {@code startRate} and increases by {@code increment} every step. */
+    public static ArrivalSchedule steps(double startRate, double increment, int steps, Duration stepDuration) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Step schedule needs at least one step: " + steps);
+        }
+        double stepSeconds = seconds(stepDuration);
+        return open("Step " + startRate + "+" + increment + "/s x" + steps,
+                t -> startRate + increment * Math.min(steps - 1, (int) (t / stepSeconds)),
+                stepDuration.multipliedBy(steps), null);
+    }
+
+    private static ArrivalSchedule open(String description, DoubleUnaryOperator rateAt, Duration duration,
+                                        SplittableRandom random) {
+        double seconds = seconds(duration);
+        long[] offsets = new long[1024];
+        int count = 0;
+        double t = 0;
+        while (t < seconds) {
+            double rate = rateAt.applyAsDouble(t);
+            if (rate <= 0) {
+                throw new IllegalArgumentException("Arrival rate must be positive: " + rate);
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = (long) (t * 1e9);
+            // Exponential inter-arrival times give a Poisson process, fixed ones a uniform rate
+            t += random != null ? -Math.log(1.0 - random.nextDouble()) / rate : 1.0 / rate;
+        }
+        return new ArrivalSchedule(description, Arrays.copyOf(offsets, count), count / seconds);
+    }
+
+    private static double seconds(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Schedule duration must be positive: " + duration);
+        }
+        return duration.toNanos() / 1e9;
+    }
+
+    public boolean isOpenLoop() {
+        return offsetsNanos != null;
+    }
+
+    /** Number of tasks an open schedule will release, or 0 for the closed schedule. */
+    public int plannedTasks() {
+        return offsetsNanos != null ? offsetsNanos.length : 0;
+    }
+
+    public double targetRate() {
+        return targetRate;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    /**
+     * Waits until task {@code taskIndex} is due and returns its intended release time
+     * ({@link System#nanoTime()} based). The closed schedule returns the current time.
+     */
+    public long next(int taskIndex) {
+        long now = System.nanoTime();
+        if (!started) {
+            started = true;
+            originNanos = now;
+        }
+        released++;
+        LiveMetrics.submitted();
+        if (offsetsNanos == null) {
+            lastReleaseNanos = now;
+            return now;
+        }
+
+        if (taskIndex >= offsetsNanos.length) {
+            throw new IllegalStateException("Task " + taskIndex + " is past the " + offsetsNanos.length + " planned arrivals");
+        }
+        long intended = originNanos + offsetsNanos[taskIndex];
+        long wait;
+        while ((wait = intended - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        lastReleaseNanos = System.nanoTime();
+        return intended;
+    }
+
+    /** Release rate the submitter actually sustained, in tasks/sec. */
+    public double achievedRate() {
+        long window = lastReleaseNanos - originNanos;
+        return released > 1 && window > 0 ? (released - 1) / (window / 1e9) : released;
+    }
+}
@@ -2,12 +2,60 @@ package main;
 
 import strategies.*;
 import utils.FileLogger;
+import utils.LiveMetrics;
+import utils.LockStats;
+import utils.MemoryMonitor;
+import utils.MemoryTraffic;
+import utils.NetworkStats;
+import utils.ResultStore;
+import utils.ThreadSampler;
 
 public class BenchmarkRunner {
     public static Metrics run(BenchmarkStrategy strategy, String taskType, int taskCount) throws InterruptedException {
-        Metrics result = strategy.execute(taskType, taskCount);
+        return run(strategy, taskType, taskCount, ArrivalSchedule.closed());
+    }
+
+    // Open-loop run: the schedule decides how many tasks are released and when
+    public static Metrics run(BenchmarkStrategy strategy, String taskType, ArrivalSchedule arrivals) throws InterruptedException {
+        return run(strategy, taskType, arrivals.plannedTasks(), arrivals);
+    }
+
+    private static Metrics run(BenchmarkStrategy strategy, String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        Metrics result = measure(strategy, taskType, taskCount, arrivals);
         System.out.println(result.format());
         FileLogger.log(result);
+        ResultStore.record(result);
         return result;
     }
-}
\ No newline at end of file
+
+    // One monitored run without printing or logging, for callers that aggregate results themselves
+    public static Metrics measure(BenchmarkStrategy strategy, String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        if (arrivals.isOpenLoop() && taskCount > arrivals.plannedTasks()) {
+            throw new IllegalArgumentException("Open schedule plans " + arrivals.plannedTasks()
+                    + " arrivals, cannot release " + taskCount + " tasks");
+        }
+        LiveMetrics.startIfEnabled(); // no-op unless live.enabled / live.port is set; stays up across runs
+        LiveMetrics.beginRun();
+        // If the run throws, closing the monitors still stops their threads, GC listeners and JFR stream
+        try (MemoryMonitor memory = MemoryMonitor.start();
+             ThreadSampler threads = ThreadSampler.start()) {
+            NetworkStats network = NetworkStats.start();
+            MemoryTraffic traffic = MemoryTraffic.start();
+            LockStats locks = LockStats.start();
+            Metrics result = strategy.execute(taskType, taskCount, arrivals);
+            locks.stop(result);
+            traffic.stop(result);
+            network.stop(result);
+            threads.stop(result);
+            memory.stop(result);
+            if (result.diagnostics != null) {
+                result.diagnostics.publish(result); // only now, so its allocations and sink waits stay out of the figures above
+                result.diagnostics = null;
+            }
+            result.arrivalModel = arrivals.description();
+            result.targetRate = arrivals.targetRate();
+            result.achievedRate = arrivals.achievedRate();
+            return result;
+        }
+    }
+}
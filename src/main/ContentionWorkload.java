@@ -0,0 +1,212 @@
+package main;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import utils.Blackhole;
+import utils.LockStats;
+
+/**
+ * Workloads where tasks contend on shared state.
+ *
+ * <pre>
+ * LOCK_SYNC_IO    blocking IO inside synchronized on one of lock.resources monitors
+ *                 (pins the carrier of a virtual thread in JDK 21)      lock.resources=8, lock.ioMs=1
+ * LOCK_REENTRANT  the same IO under a ReentrantLock per resource instead of a monitor
+ * LOCK_STAMPED    optimistic reads of a shared table, lock.writeRatio of tasks write it   lock.writeRatio=0.1
+ * LOCK_STRIPED    lock.stripeOps updates spread over a map guarded by lock.stripes locks  lock.stripes=16
+ * CACHE           ConcurrentHashMap cache; lock.cacheHitRatio of lookups go to hot keys that are
+ *                 always cached, the rest to lock.cacheColdKeys cold keys of which only the other
+ *                 half of the cache fits; a miss costs lock.ioMs and is inserted with FIFO eviction
+ *                                          lock.cacheHitRatio=0.9, lock.cacheSize=10000, lock.cacheColdKeys=4*cacheSize
+ * </pre>
+ *
+ * Lock wait time, contended acquisitions, pinned blocking calls, failed optimistic reads and the
+ * achieved hit ratio (hot hits plus cold keys that were still cached) are reported through {@link LockStats}; JFR pinned events are counted by
+ * {@link utils.ThreadSampler} as for any other workload.
+ */
+public class ContentionWorkload {
+
+    private static final int RESOURCES = Integer.getInteger("lock.resources", 8);
+    private static final Duration IO_TIME = Duration.ofMillis(Long.getLong("lock.ioMs", 1));
+    private static final double WRITE_RATIO = Double.parseDouble(System.getProperty("lock.writeRatio", "0.1"));
+    private static final int STRIPES = Integer.getInteger("lock.stripes", 16);
+    private static final int STRIPE_OPS = Integer.getInteger("lock.stripeOps", 64);
+    private static final double CACHE_HIT_RATIO = Double.parseDouble(System.getProperty("lock.cacheHitRatio", "0.9"));
+    private static final int CACHE_SIZE = Integer.getInteger("lock.cacheSize", 10_000);
+    private static final int CACHE_COLD_KEYS = Integer.getInteger("lock.cacheColdKeys", CACHE_SIZE * 4);
+
+    // LOCK_SYNC_IO / LOCK_REENTRANT: shared resources, one monitor or lock each
+    private static final Object[] MONITORS = new Object[RESOURCES];
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[RESOURCES];
+    private static final long[] RESOURCE_COUNTS = new long[RESOURCES];
+
+    static {
+        for (int i = 0; i < RESOURCES; i++) {
+            MONITORS[i] = new Object();
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    // LOCK_STAMPED: a small read-mostly table
+    private static final StampedLock TABLE_LOCK = new StampedLock();
+    private static final long[] TABLE = new long[64];
+
+    // LOCK_STRIPED: a plain HashMap per stripe, each guarded by its own lock
+    private static final ReentrantLock[] STRIPE_LOCKS = new ReentrantLock[STRIPES];
+    private static final List<Map<Integer, Long>> STRIPE_MAPS = new ArrayList<>(STRIPES);
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            STRIPE_LOCKS[i] = new ReentrantLock();
+            STRIPE_MAPS.add(new HashMap<>());
+        }
+    }
+
+    // LOCK_SYNC_IO: the monitor is held across the IO, so other tasks queue behind it
+    public static void synchronizedIo() {
+        int resource = ThreadLocalRandom.current().nextInt(RESOURCES);
+        long requestedAt = System.nanoTime();
+        synchronized (MONITORS[resource]) {
+            LockStats.acquired(System.nanoTime() - requestedAt);
+            RESOURCE_COUNTS[resource]++;
+            LockStats.blockingInMonitor();
+            blockingIo();
+        }
+    }
+
+    // LOCK_REENTRANT: same critical section, but a parked virtual thread releases its carrier
+    public static void reentrantIo() {
+        int resource = ThreadLocalRandom.current().nextInt(RESOURCES);
+        ReentrantLock lock = LOCKS[resource];
+        lock(lock);
+        try {
+            RESOURCE_COUNTS[resource]++;
+            blockingIo();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // LOCK_STAMPED: readers validate an optimistic stamp and only take the read lock if a writer got in
+    public static void stampedRead() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < WRITE_RATIO) {
+            long requestedAt = System.nanoTime();
+            long stamp = TABLE_LOCK.writeLock();
+            LockStats.acquired(System.nanoTime() - requestedAt);
+            try {
+                TABLE[random.nextInt(TABLE.length)] += random.nextInt(100);
+            } finally {
+                TABLE_LOCK.unlockWrite(stamp);
+            }
+            return;
+        }
+
+        long stamp = TABLE_LOCK.tryOptimisticRead();
+        long sum = sumTable();
+        if (!TABLE_LOCK.validate(stamp)) {
+            LockStats.optimisticReadFailed();
+            long requestedAt = System.nanoTime();
+            stamp = TABLE_LOCK.readLock();
+            LockStats.acquired(System.nanoTime() - requestedAt);
+            try {
+                sum = sumTable();
+            } finally {
+                TABLE_LOCK.unlockRead(stamp);
+            }
+        }
+        Blackhole.consume(sum);
+    }
+
+    private static long sumTable() {
+        long sum = 0;
+        for (long value : TABLE) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    // LOCK_STRIPED: each update locks only the stripe that owns its key
+    public static void stripedUpdate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < STRIPE_OPS; i++) {
+            int key = random.nextInt(STRIPES * 1024);
+            int stripe = key % STRIPES;
+            ReentrantLock lock = STRIPE_LOCKS[stripe];
+            lock(lock);
+            try {
+                STRIPE_MAPS.get(stripe).merge(key, 1L, Long::sum);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // CACHE: lock-free hits; misses pay the load and insert a cold entry
+    public static void cacheLookup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long key = random.nextDouble() < CACHE_HIT_RATIO
+                ? random.nextLong(Cache.HOT_KEYS)
+                : Cache.HOT_KEYS + random.nextLong(Cache.COLD_KEYS); // may still be cached from an earlier miss
+        Long value = Cache.ENTRIES.get(key);
+        LockStats.cacheLookup(value != null);
+        if (value == null) {
+            blockingIo(); // load outside any lock; computeIfAbsent would hold the bin lock across it
+            if (Cache.ENTRIES.putIfAbsent(key, key * 31) == null) {
+                Cache.COLD.offer(key);
+                // Evict the oldest cold entries so the cache stays at its configured size
+                while (Cache.ENTRIES.size() > CACHE_SIZE) {
+                    Long oldest = Cache.COLD.poll();
+                    if (oldest == null) {
+                        break;
+                    }
+                    Cache.ENTRIES.remove(oldest);
+                }
+            }
+            value = key * 31;
+        }
+        Blackhole.consume(value);
+    }
+
+    // Half the cache is preloaded with hot keys that are never evicted; cold keys compete for the rest
+    private static class Cache {
+        static final int HOT_KEYS = Math.max(1, CACHE_SIZE / 2);
+        static final int COLD_KEYS = Math.max(1, CACHE_COLD_KEYS);
+        static final ConcurrentHashMap<Long, Long> ENTRIES = new ConcurrentHashMap<>(CACHE_SIZE * 2);
+        static final ConcurrentLinkedQueue<Long> COLD = new ConcurrentLinkedQueue<>();
+
+        static {
+            for (long key = 0; key < HOT_KEYS; key++) {
+                ENTRIES.put(key, key * 31);
+            }
+        }
+    }
+
+    // tryLock first so uncontended acquisitions are recorded without a wait
+    private static void lock(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            LockStats.acquired(0);
+            return;
+        }
+        long requestedAt = System.nanoTime();
+        lock.lock();
+        LockStats.acquired(System.nanoTime() - requestedAt);
+    }
+
+    private static void blockingIo() {
+        try {
+            Thread.sleep(IO_TIME);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shape of one fan-out/fan-in request: {@code depth} layers of {@code width} nodes, where
+ * every node of a layer depends on {@code fanIn} nodes of the layer before it.
+ *
+ * <pre>
+ * dag.width=4      nodes per layer
+ * dag.depth=2      layers
+ * dag.fanIn=0      parents per node, starting at the node's own index (0 = the whole previous layer)
+ * dag.types=IO,CPU task type per layer; "IO|CPU" alternates by node inside a layer.
+ *                  Layers past the end reuse the last entry; empty = the benchmark's task type.
+ * </pre>
+ *
+ * The default is the aggregation-endpoint pattern: four IO calls fanned out, then joined into
+ * four CPU nodes. Node ids are {@code layer * width + index}.
+ */
+public class DagWorkload {
+
+    private final int width;
+    private final int depth;
+    private final int fanIn;
+    private final String[][] layerTypes; // null: every node runs the benchmark's task type
+    private final int[][] parents;
+    private final int[][] children;
+
+    public DagWorkload(int width, int depth, int fanIn, String types) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("DAG width and depth must be at least 1");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.fanIn = fanIn <= 0 ? width : Math.min(fanIn, width);
+        this.layerTypes = parseTypes(types);
+
+        int nodes = width * depth;
+        parents = new int[nodes][];
+        List<List<Integer>> successors = new ArrayList<>(nodes);
+        for (int n = 0; n < nodes; n++) {
+            successors.add(new ArrayList<>());
+        }
+        for (int n = 0; n < nodes; n++) {
+            int layer = n / width;
+            if (layer == 0) {
+                parents[n] = new int[0];
+                continue;
+            }
+            parents[n] = new int[this.fanIn];
+            for (int k = 0; k < this.fanIn; k++) {
+                int parent = (layer - 1) * width + (n % width + k) % width;
+                parents[n][k] = parent;
+                successors.get(parent).add(n);
+            }
+        }
+        children = new int[nodes][];
+        for (int n = 0; n < nodes; n++) {
+            children[n] = successors.get(n).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public static DagWorkload fromProperties() {
+        return fromProperties(Integer.getInteger("dag.width", 4), Integer.getInteger("dag.depth", 2));
+    }
+
+    public static DagWorkload fromProperties(int width, int depth) {
+        return new DagWorkload(width, depth, Integer.getInteger("dag.fanIn", 0), System.getProperty("dag.types", "IO,CPU"));
+    }
+
+    private static String[][] parseTypes(String types) {
+        if (types == null || types.isBlank()) {
+            return null;
+        }
+        String[] layers = types.split(",");
+        String[][] parsed = new String[layers.length][];
+        for (int i = 0; i < layers.length; i++) {
+            parsed[i] = layers[i].trim().toUpperCase().split("\\|");
+        }
+        return parsed;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int nodes() {
+        return width * depth;
+    }
+
+    /** Nodes without dependencies: the first layer. */
+    public int sources() {
+        return width;
+    }
+
+    public int[] parents(int node) {
+        return parents[node];
+    }
+
+    public int[] children(int node) {
+        return children[node];
+    }
+
+    public String taskType(int node, String defaultType) {
+        if (layerTypes == null) {
+            return defaultType;
+        }
+        String[] layer = layerTypes[Math.min(node / width, layerTypes.length - 1)];
+        return layer[node % width % layer.length];
+    }
+
+    /** Longest dependency chain through the given node durations: the makespan with unlimited workers. */
+    public long criticalPathNanos(long[] durations) {
+        long[] finish = new long[durations.length];
+        long longest = 0;
+        for (int n = 0; n < durations.length; n++) { // ids are in topological order
+            long ready = 0;
+            for (int parent : parents[n]) {
+                ready = Math.max(ready, finish[parent]);
+            }
+            finish[n] = ready + durations[n];
+            longest = Math.max(longest, finish[n]);
+        }
+        return longest;
+    }
+
+    public String describe(String defaultType) {
+        StringBuilder types = new StringBuilder();
+        for (int layer = 0; layer < depth; layer++) {
+            String[] layerType = layerTypes == null
+                    ? new String[] {defaultType} : layerTypes[Math.min(layer, layerTypes.length - 1)];
+            types.append(layer == 0 ? "" : ",").append(String.join("|", layerType));
+        }
+        return "DAG " + width + "x" + depth + " fan-in " + fanIn + " (" + types + ")";
+    }
+}
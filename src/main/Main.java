@@ -1,13 +1,20 @@
 package main;
 
+import java.time.Duration;
 import java.util.Scanner;
 
+import strategies.AdaptiveStrategy;
 import strategies.BenchmarkStrategy;
+import strategies.DagStrategy;
+import strategies.FlowStrategy;
 import strategies.ForkJoinStrategy;
+import strategies.PartitionedStrategy;
+import strategies.PipelineStrategy;
 import strategies.PlatformStrategy;
 import strategies.StructuredBatchingStrategy;
 import strategies.StructuredScopedStrategy;
 import strategies.VirtualStrategy;
+import utils.FileLogger;
 
 public class Main {
     @SuppressWarnings("unused")
@@ -21,6 +28,16 @@ public class Main {
 			System.out.println("3. ForkJoin Pool");
 			System.out.println("4. Structured Scoped");
 			System.out.println("5. Structured Batching");
+			System.out.println("6. Adaptive Concurrency (Virtual Threads)");
+			System.out.println("7. ForkJoin Pool (Range Splitting)");
+			System.out.println("8. Pipeline (IO on Virtual, CPU on Platform)");
+			System.out.println("9. Partitioned (per-core queues with work stealing)");
+			System.out.println("10. Structured Sliding Window (Virtual)");
+			System.out.println("11. Structured with Deadline (joinUntil + cancellation)");
+			System.out.println("12. Structured Hedged Requests (ShutdownOnSuccess)");
+			System.out.println("13. Reactive Flow (SubmissionPublisher, virtual workers)");
+			System.out.println("14. Reactive Flow (SubmissionPublisher, core-sized pool)");
+			System.out.println("15. DAG Scheduler (fan-out/fan-in requests, see dag.* properties)");
 			System.out.print("Enter your choice: ");
 			int strategyChoice = scanner.nextInt();
 
@@ -28,11 +45,62 @@ public class Main {
 			System.out.println("1. CPU-bound");
 			System.out.println("2. IO-bound");
 			System.out.println("3. Mixed");
+			System.out.println("4. Service-time distribution (CPU + blocking, see workload.* properties)");
+			System.out.println("5. File reads (FileChannel)");
+			System.out.println("6. Memory-mapped reads");
+			System.out.println("7. Loopback TCP - blocking Socket");
+			System.out.println("8. Loopback TCP - NIO Selector client");
+			System.out.println("9. Loopback TCP - AsynchronousSocketChannel");
+			System.out.println("10. Loopback UDP");
+			System.out.println("11. Memory - fill reusable buffers");
+			System.out.println("12. Memory - streaming off-heap scan");
+			System.out.println("13. Memory - pointer chase (L2-sized)");
+			System.out.println("14. Memory - pointer chase (L3-sized)");
+			System.out.println("15. Memory - pointer chase (DRAM)");
+			System.out.println("16. Contention - blocking IO inside synchronized (pins virtual threads)");
+			System.out.println("17. Contention - blocking IO under ReentrantLock");
+			System.out.println("18. Contention - StampedLock optimistic reads");
+			System.out.println("19. Contention - striped lock map");
+			System.out.println("20. Contention - ConcurrentHashMap cache (see lock.cacheHitRatio)");
 			System.out.print("Enter your choice: ");
 			int taskTypeChoice = scanner.nextInt();
 
-			System.out.print("\nEnter number of tasks: ");
-			int taskCount = scanner.nextInt();
+			System.out.println("\nSelect Load Mode:");
+			System.out.println("1. Closed burst (submit all tasks at once)");
+			System.out.println("2. Open loop - constant rate");
+			System.out.println("3. Open loop - Poisson arrivals");
+			System.out.println("4. Open loop - linear ramp");
+			System.out.println("5. Open loop - step increase");
+			System.out.print("Enter your choice: ");
+			int loadChoice = scanner.nextInt();
+
+			int taskCount = 0;
+			ArrivalSchedule arrivals = ArrivalSchedule.closed();
+			if (loadChoice == 1) {
+			    System.out.print("\nEnter number of tasks: ");
+			    taskCount = scanner.nextInt();
+			} else {
+			    System.out.print("\nEnter target rate (tasks/sec): ");
+			    double rate = scanner.nextDouble();
+			    System.out.print("Enter duration (seconds): ");
+			    Duration duration = Duration.ofSeconds(scanner.nextInt());
+			    arrivals = switch (loadChoice) {
+			        case 2 -> ArrivalSchedule.constant(rate, duration);
+			        case 3 -> ArrivalSchedule.poisson(rate, duration, System.nanoTime());
+			        case 4 -> {
+			            System.out.print("Enter final rate (tasks/sec): ");
+			            yield ArrivalSchedule.ramp(rate, scanner.nextDouble(), duration);
+			        }
+			        case 5 -> {
+			            System.out.print("Enter rate increment per step (tasks/sec): ");
+			            double increment = scanner.nextDouble();
+			            System.out.print("Enter number of steps: ");
+			            int steps = Math.max(1, scanner.nextInt());
+			            yield ArrivalSchedule.steps(rate, increment, steps, duration.dividedBy(steps));
+			        }
+			        default -> throw new IllegalArgumentException("Invalid load mode");
+			    };
+			}
 
 			BenchmarkStrategy strategy = switch (strategyChoice) {
 			    case 1 -> new PlatformStrategy();
@@ -40,6 +108,31 @@ public class Main {
 			    case 3 -> new ForkJoinStrategy();
 			    case 4 -> new StructuredScopedStrategy();
 			    case 5 -> new StructuredBatchingStrategy();
+			    case 6 -> new AdaptiveStrategy();
+			    case 7 -> new ForkJoinStrategy(Runtime.getRuntime().availableProcessors(), false, true);
+			    case 8 -> new PipelineStrategy();
+			    case 9 -> new PartitionedStrategy();
+			    case 10 -> new StructuredBatchingStrategy(1000, false, true);
+			    case 11 -> {
+			        System.out.print("Enter run deadline (ms): ");
+			        yield new StructuredScopedStrategy(false, StructuredScopedStrategy.Mode.DEADLINE, Duration.ofMillis(scanner.nextLong()));
+			    }
+			    case 12 -> new StructuredScopedStrategy(false, StructuredScopedStrategy.Mode.HEDGED, Duration.ofMinutes(5));
+			    case 13, 14 -> {
+			        System.out.print("Enter demand batch size: ");
+			        int demand = scanner.nextInt();
+			        int workers = strategyChoice == 14 ? Runtime.getRuntime().availableProcessors() : 0;
+			        yield new FlowStrategy(demand, FlowStrategy.DEFAULT_BUFFER_SIZE, workers, false);
+			    }
+			    case 15 -> {
+			        System.out.print("DAG runtime - 1. Virtual threads  2. ForkJoin  3. Nested structured scopes  4. CompletableFuture: ");
+			        DagStrategy.Mode mode = DagStrategy.Mode.values()[scanner.nextInt() - 1];
+			        System.out.print("Enter DAG width (nodes per layer): ");
+			        int width = scanner.nextInt();
+			        System.out.print("Enter DAG depth (layers): ");
+			        int depth = scanner.nextInt();
+			        yield new DagStrategy(mode, DagWorkload.fromProperties(width, depth), Runtime.getRuntime().availableProcessors(), false);
+			    }
 			    default -> throw new IllegalArgumentException("Invalid strategy");
 			};
 
@@ -47,13 +140,33 @@ public class Main {
 			    case 1 -> "CPU";
 			    case 2 -> "IO";
 			    case 3 -> "MIXED";
+			    case 4 -> "SERVICE";
+			    case 5 -> "FILE";
+			    case 6 -> "MMAP";
+			    case 7 -> "TCP_BLOCKING";
+			    case 8 -> "TCP_NIO";
+			    case 9 -> "TCP_ASYNC";
+			    case 10 -> "UDP";
+			    case 11 -> "MEMORY";
+			    case 12 -> "MEM_STREAM";
+			    case 13 -> "MEM_CHASE_L2";
+			    case 14 -> "MEM_CHASE_L3";
+			    case 15 -> "MEM_CHASE_DRAM";
+			    case 16 -> "LOCK_SYNC_IO";
+			    case 17 -> "LOCK_REENTRANT";
+			    case 18 -> "LOCK_STAMPED";
+			    case 19 -> "LOCK_STRIPED";
+			    case 20 -> "CACHE";
 			    default -> throw new IllegalArgumentException("Invalid task type");
 			};
 
 			System.out.println("\nRunning benchmark...\nPlease wait...\n");
-			Metrics metrics = BenchmarkRunner.run(strategy, taskType, taskCount);
+			Metrics metrics = arrivals.isOpenLoop()
+			        ? BenchmarkRunner.run(strategy, taskType, arrivals)
+			        : BenchmarkRunner.run(strategy, taskType, taskCount);
 		}
 
-        System.out.println("\n Result saved to results.txt");
+        FileLogger.flush();
+        System.out.println("\n Result saved to " + FileLogger.sink().path());
     }
 }
\ No newline at end of file
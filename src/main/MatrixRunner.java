@@ -0,0 +1,353 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+
+import strategies.BenchmarkStrategy;
+import strategies.StrategyFactory;
+import utils.ResultStore;
+
+/**
+ * Non-interactive benchmark matrix: strategies x task types x task counts x pool sizes x batch
+ * sizes, each cell repeated and aggregated into CSV and JSON.
+ *
+ * Settings come from {@code --key=value} arguments, optionally on top of a properties file
+ * given with {@code --config=path}. Keys and defaults:
+ *
+ * <pre>
+ * strategies=Platform,Virtual,ForkJoin,StructuredScoped,StructuredBatching
+ * taskTypes=CPU,IO,MIXED
+ * taskCounts=1000,10000
+ * poolSizes=0            (0 = strategy default)
+ * batchSizes=0
+ * repetitions=5
+ * warmups=1              (unmeasured runs before each measured one)
+ * fork=true              (every repetition in a fresh JVM)
+ * jvmArgs=               (extra JVM flags for forked runs, space separated; they win over forwarded properties)
+ * cellTimeoutMinutes=30
+ * output=src/output/matrix  (writes matrix.csv and matrix.json)
+ * </pre>
+ *
+ * Forked runs get every {@code workload.*}, {@code lock.*}, {@code memory.*}, {@code dag.*},
+ * {@code flow.*}, {@code partitioned.*}, {@code structured.*}, {@code live.*} and
+ * {@code results.*} system property of this JVM, so they measure the same configuration as
+ * an in-process run.
+ *
+ * Every measured repetition is also appended to the binary result store under
+ * {@code -Dresults.label} (see {@link utils.ResultStore}), for comparison with {@link ResultCompare}.
+ *
+ * Example: {@code java --enable-preview -cp out main.MatrixRunner --taskTypes=CPU --taskCounts=1000,100000}
+ */
+public class MatrixRunner {
+
+    private static final String RESULT_PREFIX = "MATRIX_RESULT ";
+    private static final String[] STAT_NAMES = {"mean", "stddev", "min", "p50", "p90", "max"};
+    // System properties read by the workloads, strategies and result store, passed on to forked runs
+    private static final List<String> FORWARDED_PREFIXES = List.of(
+            "workload.", "lock.", "memory.", "dag.", "flow.", "partitioned.", "structured.", "live.", "results.");
+
+    // Metrics aggregated across repetitions, in output column order
+    private static final Map<String, ToDoubleFunction<Metrics>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("throughput", m -> m.throughput);
+        FIELDS.put("totalTimeMs", m -> m.totalTimeMs);
+        FIELDS.put("completedTasks", m -> m.completedTasks);
+        FIELDS.put("serviceP50Ms", m -> m.serviceP50Ms);
+        FIELDS.put("serviceP99Ms", m -> m.serviceP99Ms);
+        FIELDS.put("serviceP999Ms", m -> m.serviceP999Ms);
+        FIELDS.put("queueP99Ms", m -> m.queueP99Ms);
+        FIELDS.put("allocatedBytes", m -> m.allocatedBytes);
+        FIELDS.put("gcPauseMs", m -> m.gcPauseMs);
+        FIELDS.put("peakHeapKB", m -> m.peakHeapKB);
+        FIELDS.put("peakPlatformThreads", m -> m.peakPlatformThreads);
+        FIELDS.put("networkMBps", m -> m.networkMBps);
+        FIELDS.put("connectionsOpened", m -> m.connectionsOpened);
+        FIELDS.put("memoryBandwidthGBps", m -> m.memoryBandwidthGBps);
+        FIELDS.put("lockWaitMs", m -> m.lockWaitMs);
+        FIELDS.put("pinnedEvents", m -> m.pinnedEvents);
+        FIELDS.put("pinnedBlockingCalls", m -> m.pinnedBlockingCalls);
+        FIELDS.put("cacheHitRatio", m -> m.cacheHitRatio);
+        FIELDS.put("timedOutTasks", m -> m.timedOutTasks);
+        FIELDS.put("hedgedWins", m -> m.hedgedWins);
+        FIELDS.put("peakBufferedTasks", m -> m.peakBufferedTasks);
+        FIELDS.put("publisherBlockedMs", m -> m.publisherBlockedMs);
+        FIELDS.put("criticalPathMs", m -> m.criticalPathMs);
+        FIELDS.put("makespanMs", m -> m.makespanMs);
+    }
+
+    private record Cell(String strategy, String taskType, int taskCount, int poolSize, int batchSize) {
+    }
+
+    private record CellResult(Cell cell, List<double[]> samples) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--cell")) {
+            runForkedCell(args);
+            return;
+        }
+
+        Properties config = parseConfig(args);
+        List<String> strategies = list(config.getProperty("strategies", "Platform,Virtual,ForkJoin,StructuredScoped,StructuredBatching"));
+        List<String> taskTypes = list(config.getProperty("taskTypes", "CPU,IO,MIXED"));
+        List<Integer> taskCounts = ints(config.getProperty("taskCounts", "1000,10000"));
+        List<Integer> poolSizes = ints(config.getProperty("poolSizes", "0"));
+        List<Integer> batchSizes = ints(config.getProperty("batchSizes", "0"));
+        int repetitions = Integer.parseInt(config.getProperty("repetitions", "5"));
+        int warmups = Integer.parseInt(config.getProperty("warmups", "1"));
+        boolean fork = Boolean.parseBoolean(config.getProperty("fork", "true"));
+        String jvmArgs = config.getProperty("jvmArgs", "").trim();
+        long cellTimeoutMinutes = Long.parseLong(config.getProperty("cellTimeoutMinutes", "30"));
+        Path output = Path.of(config.getProperty("output", "src/output/matrix"));
+
+        // Pool/batch sizes only matter to some strategies; don't re-run identical cells for the others
+        List<Cell> cells = new ArrayList<>();
+        Set<Cell> seen = new HashSet<>();
+        for (String strategy : strategies) {
+            for (String taskType : taskTypes) {
+                for (int taskCount : taskCounts) {
+                    for (int poolSize : poolSizes) {
+                        for (int batchSize : batchSizes) {
+                            Cell cell = new Cell(strategy, taskType, taskCount,
+                                    StrategyFactory.usesPoolSize(strategy) ? poolSize : 0,
+                                    StrategyFactory.usesBatchSize(strategy) ? batchSize : 0);
+                            if (seen.add(cell)) {
+                                cells.add(cell);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.println("Running " + cells.size() + " cells x " + repetitions + " repetitions"
+                + (fork ? " (forked JVM per repetition)" : " (in-process)") + "\n");
+
+        List<CellResult> results = new ArrayList<>();
+        for (Cell cell : cells) {
+            List<double[]> samples = new ArrayList<>();
+            for (int rep = 1; rep <= repetitions; rep++) {
+                double[] sample = fork
+                        ? runForked(cell, warmups, jvmArgs, cellTimeoutMinutes)
+                        : toSample(runCell(cell, warmups));
+                if (sample == null) {
+                    System.err.println("⚠️ " + cell + " repetition " + rep + " produced no result.");
+                    continue;
+                }
+                samples.add(sample);
+                System.out.printf(Locale.ROOT, "%-18s %-6s %8d pool=%d batch=%d  rep %d/%d: %.0f tasks/sec%n",
+                        cell.strategy(), cell.taskType(), cell.taskCount(), cell.poolSize(), cell.batchSize(),
+                        rep, repetitions, sample[0]);
+            }
+            results.add(new CellResult(cell, samples));
+        }
+
+        Path csv = output.resolveSibling(output.getFileName() + ".csv");
+        Path json = output.resolveSibling(output.getFileName() + ".json");
+        writeCsv(csv, results);
+        writeJson(json, results);
+        System.out.println("\nMatrix results written to " + csv + " and " + json);
+    }
+
+    // Warm-up runs, a GC barrier, then one monitored run
+    private static Metrics runCell(Cell cell, int warmups) throws InterruptedException {
+        BenchmarkStrategy strategy = StrategyFactory.create(cell.strategy(), cell.poolSize(), cell.batchSize());
+        for (int i = 0; i < warmups; i++) {
+            strategy.execute(cell.taskType(), cell.taskCount());
+        }
+        for (int i = 0; i < 2; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Metrics metrics = BenchmarkRunner.measure(strategy, cell.taskType(), cell.taskCount(), ArrivalSchedule.closed());
+        metrics.poolSize = cell.poolSize();
+        metrics.batchSize = cell.batchSize();
+        ResultStore.record(metrics);
+        return metrics;
+    }
+
+    // Child side of a forked repetition: --cell strategy taskType taskCount poolSize batchSize warmups
+    private static void runForkedCell(String[] args) throws InterruptedException {
+        Cell cell = new Cell(args[1], args[2], Integer.parseInt(args[3]), Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+        double[] sample = toSample(runCell(cell, Integer.parseInt(args[6])));
+        StringBuilder line = new StringBuilder(RESULT_PREFIX);
+        for (int i = 0; i < sample.length; i++) {
+            line.append(i > 0 ? "," : "").append(sample[i]);
+        }
+        System.out.println(line);
+        System.exit(0); // don't wait on non-daemon threads a strategy may have left behind
+    }
+
+    private static double[] runForked(Cell cell, int warmups, String jvmArgs, long timeoutMinutes) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("--enable-preview");
+        // Same workload settings, and the same result store and label, as this JVM
+        for (String key : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+            if (FORWARDED_PREFIXES.stream().anyMatch(key::startsWith)) {
+                command.add("-D" + key + "=" + System.getProperty(key));
+            }
+        }
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), MatrixRunner.class.getName(), "--cell",
+                cell.strategy(), cell.taskType(), String.valueOf(cell.taskCount()),
+                String.valueOf(cell.poolSize()), String.valueOf(cell.batchSize()), String.valueOf(warmups)));
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        // Read the child's output on another thread so a hung child can't keep us from timing out
+        AtomicReference<double[]> sample = new AtomicReference<>();
+        Thread reader = Thread.ofVirtual().start(() -> {
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        sample.set(Arrays.stream(line.substring(RESULT_PREFIX.length()).split(","))
+                                .mapToDouble(Double::parseDouble).toArray());
+                    }
+                }
+            } catch (IOException e) {
+                // Stream closed when the child was destroyed
+            }
+        });
+        if (!process.waitFor(timeoutMinutes, TimeUnit.MINUTES)) {
+            System.err.println("⚠️ " + cell + " did not finish within " + timeoutMinutes + " minutes, killing it.");
+            process.destroyForcibly();
+            return null;
+        }
+        reader.join(TimeUnit.SECONDS.toMillis(10)); // the child has exited, so its output ends shortly
+        return sample.get();
+    }
+
+    private static double[] toSample(Metrics metrics) {
+        return FIELDS.values().stream().mapToDouble(f -> f.applyAsDouble(metrics)).toArray();
+    }
+
+    // mean, stddev, min, p50, p90, max of one field across repetitions
+    private static double[] stats(List<double[]> samples, int field) {
+        double[] values = samples.stream().mapToDouble(s -> s[field]).sorted().toArray();
+        if (values.length == 0) {
+            return new double[] {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        }
+        double mean = Arrays.stream(values).average().orElse(0);
+        double variance = values.length > 1
+                ? Arrays.stream(values).map(v -> (v - mean) * (v - mean)).sum() / (values.length - 1) : 0;
+        return new double[] {mean, Math.sqrt(variance), values[0], percentile(values, 50), percentile(values, 90),
+                values[values.length - 1]};
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static void writeCsv(Path path, List<CellResult> results) throws IOException {
+        createParent(path);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            StringBuilder header = new StringBuilder("strategy,taskType,taskCount,poolSize,batchSize,repetitions");
+            for (String field : FIELDS.keySet()) {
+                for (String stat : STAT_NAMES) {
+                    header.append(',').append(field).append('_').append(stat);
+                }
+            }
+            out.println(header);
+
+            for (CellResult result : results) {
+                Cell cell = result.cell();
+                StringBuilder row = new StringBuilder(String.join(",", cell.strategy(), cell.taskType(),
+                        String.valueOf(cell.taskCount()), String.valueOf(cell.poolSize()),
+                        String.valueOf(cell.batchSize()), String.valueOf(result.samples().size())));
+                for (int f = 0; f < FIELDS.size(); f++) {
+                    for (double value : stats(result.samples(), f)) {
+                        row.append(',').append(String.format(Locale.ROOT, "%.3f", value));
+                    }
+                }
+                out.println(row);
+            }
+        }
+    }
+
+    private static void writeJson(Path path, List<CellResult> results) throws IOException {
+        createParent(path);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("[");
+            for (int r = 0; r < results.size(); r++) {
+                CellResult result = results.get(r);
+                Cell cell = result.cell();
+                out.printf(Locale.ROOT, "  {\"strategy\": \"%s\", \"taskType\": \"%s\", \"taskCount\": %d, \"poolSize\": %d, "
+                        + "\"batchSize\": %d, \"repetitions\": %d, \"metrics\": {%n",
+                        cell.strategy(), cell.taskType(), cell.taskCount(), cell.poolSize(), cell.batchSize(),
+                        result.samples().size());
+                int f = 0;
+                for (String field : FIELDS.keySet()) {
+                    double[] stats = stats(result.samples(), f);
+                    StringBuilder entry = new StringBuilder("    \"" + field + "\": {");
+                    for (int s = 0; s < STAT_NAMES.length; s++) {
+                        entry.append(s > 0 ? ", " : "").append('"').append(STAT_NAMES[s]).append("\": ")
+                                .append(Double.isNaN(stats[s]) ? "null" : String.format(Locale.ROOT, "%.3f", stats[s]));
+                    }
+                    out.println(entry.append(++f < FIELDS.size() ? "}," : "}"));
+                }
+                out.println(r + 1 < results.size() ? "  }}," : "  }}");
+            }
+            out.println("]");
+        }
+    }
+
+    private static Properties parseConfig(String[] args) throws IOException {
+        Properties config = new Properties();
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) {
+                try (Reader reader = Files.newBufferedReader(Path.of(arg.substring("--config=".length())))) {
+                    config.load(reader);
+                }
+            }
+        }
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String key = arg.substring(2, eq);
+            if (!key.equals("config")) {
+                config.setProperty(key, arg.substring(eq + 1));
+            }
+        }
+        return config;
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(v -> !v.isEmpty()).toList();
+    }
+
+    private static List<Integer> ints(String value) {
+        return list(value).stream().map(v -> Integer.parseInt(v.replace("_", ""))).toList();
+    }
+
+    private static void createParent(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+}
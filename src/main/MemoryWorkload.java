@@ -0,0 +1,147 @@
+package main;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import utils.Blackhole;
+import utils.MemoryTraffic;
+
+/**
+ * Memory-bound workloads: tasks whose speed is set by cache and DRAM bandwidth or latency
+ * rather than by the CPU.
+ *
+ * <pre>
+ * MEMORY          fill and sum a reusable int[] buffer       memory.bufferKB=1024
+ * MEM_STREAM      sequential scan of a shared off-heap block  memory.streamMB=256, memory.scanKB=4096
+ * MEM_CHASE_L2    pointer chase in an L2-sized ring           memory.l2KB=256
+ * MEM_CHASE_L3    pointer chase in an L3-sized ring           memory.l3MB=8
+ * MEM_CHASE_DRAM  pointer chase far beyond the caches         memory.dramMB=128
+ *                 (loads per chase task: memory.chaseLoads=100000)
+ * </pre>
+ *
+ * Shared data is built once per JVM on first use and only read afterwards, so tasks contend
+ * for bandwidth, not for the allocator or the GC. Traffic is reported through {@link MemoryTraffic}.
+ */
+public class MemoryWorkload {
+
+    private static final int BUFFER_INTS = Integer.getInteger("memory.bufferKB", 1024) * 1024 / Integer.BYTES;
+    private static final int SCAN_BYTES = Integer.getInteger("memory.scanKB", 4096) * 1024;
+    private static final int CHASE_LOADS = Integer.getInteger("memory.chaseLoads", 100_000);
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8; // what HotSpot can actually allocate
+
+    // Reusable task buffers. A ThreadLocal would give every virtual thread its own copy, so
+    // buffers are pooled instead; the pool only grows to the number of tasks running at once.
+    private static final ConcurrentLinkedQueue<int[]> BUFFERS = new ConcurrentLinkedQueue<>();
+
+    // MEMORY: write a buffer with random values, then read it back
+    public static void fillAndSum() {
+        int[] buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = new int[BUFFER_INTS];
+        }
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < buffer.length; i++) {
+                buffer[i] = random.nextInt();
+            }
+            long sum = 0;
+            for (int value : buffer) {
+                sum += value;
+            }
+            Blackhole.consume(sum);
+            MemoryTraffic.touched(2L * buffer.length * Integer.BYTES);
+        } finally {
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    // MEM_STREAM: sums a random window of the shared off-heap block, 8 bytes at a time
+    public static void streamScan() {
+        ByteBuffer block = StreamBlock.BLOCK;
+        int window = Math.min(SCAN_BYTES, block.capacity()) & ~7;
+        int offset = ThreadLocalRandom.current().nextInt(block.capacity() - window + 1) & ~7;
+        long sum = 0;
+        for (int i = offset, end = offset + window; i < end; i += Long.BYTES) {
+            sum += block.getLong(i);
+        }
+        Blackhole.consume(sum);
+        MemoryTraffic.touched(window);
+    }
+
+    public static void chaseL2() {
+        chase(ChaseL2.RING);
+    }
+
+    public static void chaseL3() {
+        chase(ChaseL3.RING);
+    }
+
+    public static void chaseDram() {
+        chase(ChaseDram.RING);
+    }
+
+    // Every load depends on the previous one, so the prefetcher can't help and latency is exposed
+    private static void chase(int[] ring) {
+        int index = ThreadLocalRandom.current().nextInt(ring.length);
+        long start = System.nanoTime();
+        for (int i = 0; i < CHASE_LOADS; i++) {
+            index = ring[index];
+        }
+        MemoryTraffic.chased(CHASE_LOADS, System.nanoTime() - start);
+        Blackhole.consume(index);
+    }
+
+    // Sattolo's algorithm: a random permutation that forms a single cycle through every slot
+    private static int[] ring(String property, long bytes) {
+        long slots = Math.max(16, bytes / Integer.BYTES);
+        if (slots > MAX_ARRAY_LENGTH) {
+            throw new IllegalArgumentException(property + " is too large for one int[] ring: " + bytes + " bytes");
+        }
+        int size = (int) slots;
+        int[] ring = new int[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i);
+            int swap = ring[i];
+            ring[i] = ring[j];
+            ring[j] = swap;
+        }
+        return ring;
+    }
+
+    // Holder idioms: each data set is only built when a task first needs it
+    private static class StreamBlock {
+        static final ByteBuffer BLOCK;
+
+        static {
+            long size = Long.getLong("memory.streamMB", 256) * 1024 * 1024;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("memory.streamMB must be below 2048 (one direct buffer): " + size / (1024 * 1024));
+            }
+            int bytes = (int) size;
+            BLOCK = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i + Long.BYTES <= bytes; i += Long.BYTES) {
+                BLOCK.putLong(i, random.nextLong());
+            }
+        }
+    }
+
+    private static class ChaseL2 {
+        static final int[] RING = ring("memory.l2KB", Long.getLong("memory.l2KB", 256) * 1024);
+    }
+
+    private static class ChaseL3 {
+        static final int[] RING = ring("memory.l3MB", Long.getLong("memory.l3MB", 8) * 1024 * 1024);
+    }
+
+    private static class ChaseDram {
+        static final int[] RING = ring("memory.dramMB", Long.getLong("memory.dramMB", 128) * 1024 * 1024);
+    }
+}
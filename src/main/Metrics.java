@@ -1,6 +1,12 @@
 package main;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import utils.DiagnosticsRecorder;
+import utils.LatencyHistogram;
+import utils.LatencyRecorder;
 
 public class Metrics {
     public String threadType;
@@ -11,6 +17,76 @@ public class Metrics {
     public long memoryUsedKB;
     public long threadsCreated;
     public int completedTasks; // ✅ ADD this field
+    public int taskCount;
+
+    // Pool and batch size a scripted run configured the strategy with (0 = the strategy's default)
+    public int poolSize;
+    public int batchSize;
+
+    // Load model: closed burst or an open-loop arrival schedule
+    public String arrivalModel = "Closed burst";
+    public double targetRate;
+    public double achievedRate;
+
+    // Per-task latency percentiles (ms), recorded by the strategies
+    public double serviceP50Ms, serviceP90Ms, serviceP99Ms, serviceP999Ms, serviceMaxMs;
+    public double queueP50Ms, queueP90Ms, queueP99Ms, queueP999Ms, queueMaxMs;
+
+    // Allocation and GC activity inside the run window, filled in by utils.MemoryMonitor
+    public long allocatedBytes;
+    public double allocationRateMBps;
+    public long gcCount;
+    public long gcPauseMs;
+    public long peakHeapKB;
+
+    // Thread accounting, filled in by utils.ThreadSampler
+    public long peakPlatformThreads;
+    public long platformThreadsStarted;
+    public long virtualThreadsStarted;
+    public int peakCarrierThreads;
+    public long forkJoinSteals;
+    public long peakQueuedTasks;
+    public long pinnedEvents;
+
+    // Loopback network workloads, filled in by utils.NetworkStats
+    public long networkBytes;
+    public double networkMBps;
+    public long connectionsOpened;
+    public int peakOpenConnections;
+    public long networkFailures;
+
+    // Deadlines and hedging in the structured strategies
+    public long timedOutTasks;
+    public long cancelledTasks;
+    public long hedgesLaunched;
+    public long hedgedWins;
+
+    // Backpressure in the Flow strategies
+    public long peakBufferedTasks;
+    public long publisherBlockedMs;
+
+    // DAG requests: mean critical path and mean makespan per request
+    public double criticalPathMs;
+    public double makespanMs;
+
+    // Lock contention workloads, filled in by utils.LockStats
+    public long lockAcquisitions;
+    public long contendedAcquisitions;
+    public long lockWaitMs;
+    public long pinnedBlockingCalls;
+    public long optimisticReadFailures;
+    public double cacheHitRatio;
+
+    // Memory workloads, filled in by utils.MemoryTraffic; bytes touched by the tasks, not measured DRAM traffic
+    public long memoryTrafficBytes;
+    public double memoryBandwidthGBps;
+    public double dependentLoadNs;
+
+    // Per-task records of a diagnostics run, written out by BenchmarkRunner after the monitors stop
+    public DiagnosticsRecorder diagnostics;
+
+    // Strategy-specific figures (limits, per-stage or per-partition stats), printed in insertion order
+    public final Map<String, Object> details = new LinkedHashMap<>();
 
     public Metrics(String threadType, String taskType, long totalTimeMs, long throughput,
                    double avgLatency, long memoryUsedKB, long threadsCreated, int completedTasks) {
@@ -25,23 +101,77 @@ public class Metrics {
     }
 
     public String format() {
+        StringBuilder extra = new StringBuilder();
+        details.forEach((name, value) -> extra.append(String.format("%-16s: %s%n", name, value)));
         return "--- Results ---\n" +
                "Thread Type     : " + threadType + "\n" +
                "Task Type       : " + taskType + "\n" +
                "Total Time      : " + totalTimeMs + " ms\n" +
+               "Arrivals        : " + arrivalModel + (targetRate > 0
+                       ? String.format(" (target %.1f/sec, achieved %.1f/sec)", targetRate, achievedRate) : "") + "\n" +
                "Throughput      : " + throughput + " tasks/sec\n" +
                "Avg Latency     : " + String.format("%.2f", avgLatency) + " ms\n" +
+               "Service Time    : " + formatPercentiles(serviceP50Ms, serviceP90Ms, serviceP99Ms, serviceP999Ms, serviceMaxMs) + "\n" +
+               "Queue Delay     : " + formatPercentiles(queueP50Ms, queueP90Ms, queueP99Ms, queueP999Ms, queueMaxMs) + "\n" +
                "Memory Used     : " + memoryUsedKB + " KB\n" +
+               "Allocated       : " + allocatedBytes / 1024 + " KB (" + String.format("%.1f", allocationRateMBps) + " MB/sec)\n" +
+               "Peak Heap       : " + peakHeapKB + " KB\n" +
+               "GC Activity     : " + gcCount + " collections, " + gcPauseMs + " ms paused\n" +
                "Threads Created : " + threadsCreated + "\n" +
-               "Tasks Completed : " + completedTasks + "\n"; // ✅ ADD this
+               "Platform Threads: " + platformThreadsStarted + " started, " + peakPlatformThreads + " peak live\n" +
+               "Virtual Threads : " + virtualThreadsStarted + " started, " + pinnedEvents + " pinned events\n" +
+               "ForkJoin Pools  : " + peakCarrierThreads + " peak workers, " + forkJoinSteals + " steals, " + peakQueuedTasks + " peak queued\n" +
+               (connectionsOpened > 0 ? String.format("Network         : %d KB (%.1f MB/sec), %d connections, %d peak open, %d failed%n",
+                       networkBytes / 1024, networkMBps, connectionsOpened, peakOpenConnections, networkFailures) : "") +
+               (memoryTrafficBytes > 0 ? String.format("Memory Touched  : %d MB (%.2f GB/sec touched)%s%n", memoryTrafficBytes / (1024 * 1024),
+                       memoryBandwidthGBps, dependentLoadNs > 0 ? String.format(", %.1f ns per dependent load", dependentLoadNs) : "") : "") +
+               (lockAcquisitions > 0 ? String.format("Lock Contention : %d acquisitions, %d contended, %d ms waited, %d pinned blocking calls%s%n",
+                       lockAcquisitions, contendedAcquisitions, lockWaitMs, pinnedBlockingCalls,
+                       optimisticReadFailures > 0 ? ", " + optimisticReadFailures + " optimistic reads retried" : "") : "") +
+               (cacheHitRatio > 0 ? String.format("Cache           : %.1f%% hit ratio%n", 100 * cacheHitRatio) : "") +
+               (timedOutTasks + cancelledTasks + hedgesLaunched > 0 ? String.format("Cancellation    : %d timed out, %d cancelled, %d hedges launched, %d hedged wins%n",
+                       timedOutTasks, cancelledTasks, hedgesLaunched, hedgedWins) : "") +
+               (peakBufferedTasks > 0 ? String.format("Backpressure    : %d peak buffered, %d ms publisher blocked%n",
+                       peakBufferedTasks, publisherBlockedMs) : "") +
+               (makespanMs > 0 ? String.format("DAG Requests    : critical path %.2f ms, makespan %.2f ms (%.1f%% above critical path)%n",
+                       criticalPathMs, makespanMs, 100.0 * (makespanMs - criticalPathMs) / Math.max(criticalPathMs, 1e-9)) : "") +
+               "Tasks Completed : " + completedTasks + "\n" + // ✅ ADD this
+               extra;
+    }
+
+    private static String formatPercentiles(double p50, double p90, double p99, double p999, double max) {
+        return String.format("p50 %.2f | p90 %.2f | p99 %.2f | p99.9 %.2f | max %.2f ms", p50, p90, p99, p999, max);
     }
 
-    public static Metrics calculate(String threadType, String taskType, Instant start, Instant end, int taskCount, int completedTasks) {
+    public static Metrics calculate(String threadType, String taskType, Instant start, Instant end, int taskCount,
+                                    int completedTasks, LatencyRecorder latency) {
         long totalTimeMs = Duration.between(start, end).toMillis();
         long throughput = (totalTimeMs > 0) ? (completedTasks * 1000L / totalTimeMs) : completedTasks;
-        double avgLatency = (double) totalTimeMs / (completedTasks > 0 ? completedTasks : 1);
         long memoryUsedKB = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1024;
         long threadsCreated = Thread.activeCount();
-        return new Metrics(threadType, taskType, totalTimeMs, throughput, avgLatency, memoryUsedKB, threadsCreated, completedTasks);
+
+        // avgLatency is the mean per-task service time, not wall time divided by task count
+        LatencyHistogram.Snapshot service = latency.serviceTime().snapshot();
+        LatencyHistogram.Snapshot queue = latency.queueDelay().snapshot();
+        Metrics metrics = new Metrics(threadType, taskType, totalTimeMs, throughput, toMs(service.mean()),
+                memoryUsedKB, threadsCreated, completedTasks);
+        metrics.taskCount = taskCount;
+
+        metrics.serviceP50Ms = toMs(service.valueAtPercentile(50));
+        metrics.serviceP90Ms = toMs(service.valueAtPercentile(90));
+        metrics.serviceP99Ms = toMs(service.valueAtPercentile(99));
+        metrics.serviceP999Ms = toMs(service.valueAtPercentile(99.9));
+        metrics.serviceMaxMs = toMs(service.max());
+
+        metrics.queueP50Ms = toMs(queue.valueAtPercentile(50));
+        metrics.queueP90Ms = toMs(queue.valueAtPercentile(90));
+        metrics.queueP99Ms = toMs(queue.valueAtPercentile(99));
+        metrics.queueP999Ms = toMs(queue.valueAtPercentile(99.9));
+        metrics.queueMaxMs = toMs(queue.max());
+        return metrics;
+    }
+
+    private static double toMs(double nanos) {
+        return nanos / 1_000_000.0;
     }
 }
@@ -0,0 +1,365 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import utils.Blackhole;
+import utils.EchoServer;
+import utils.NetworkStats;
+
+/**
+ * Client workloads against the in-process loopback {@link EchoServer}.
+ *
+ * <ul>
+ * <li>TCP_BLOCKING: blocking {@link Socket} I/O on the strategy's own thread.</li>
+ * <li>TCP_NIO: the task hands its exchange to one shared {@link Selector} thread and waits for it.</li>
+ * <li>TCP_ASYNC: {@link AsynchronousSocketChannel} operations on the default channel group.</li>
+ * <li>UDP: request/response datagrams over a connected {@link DatagramSocket}.</li>
+ * </ul>
+ *
+ * Every task opens one connection and does {@code workload.roundTrips} request/response
+ * exchanges of {@code workload.payloadBytes} bytes on it. The server waits
+ * {@code workload.echoDelay} (a {@link ServiceTime} spec, default fixed:0) before each reply.
+ */
+public class NetworkWorkload {
+
+    private static final int PAYLOAD_BYTES = Integer.getInteger("workload.payloadBytes", 1024);
+    private static final int ROUND_TRIPS = Math.max(1, Integer.getInteger("workload.roundTrips", 1));
+    private static final ServiceTime ECHO_DELAY = ServiceTime.parse(System.getProperty("workload.echoDelay", "fixed:0"));
+    private static final int UDP_TIMEOUT_MS = 1000;
+    private static final int UDP_ATTEMPTS = 3;
+    private static final long NIO_TIMEOUT_SECONDS = 60; // safety net only; the selector fails exchanges itself
+
+    // Shared request body; only ever read
+    private static final byte[] PAYLOAD = new byte[PAYLOAD_BYTES];
+
+    static {
+        ThreadLocalRandom.current().nextBytes(PAYLOAD);
+    }
+
+    public static boolean isNetworkTask(String taskType) {
+        return switch (taskType.toUpperCase()) {
+            case "SOCKET", "TCP_BLOCKING", "TCP_NIO", "TCP_ASYNC", "UDP" -> true;
+            default -> false;
+        };
+    }
+
+    public static void tcpBlocking() {
+        byte[] response = new byte[PAYLOAD_BYTES];
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.setSoLinger(true, 0); // RST on close: no TIME_WAIT build-up over 100k+ tasks
+            socket.connect(Loopback.SERVER.tcpAddress());
+            NetworkStats.connectionOpened();
+            try {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                for (int i = 0; i < ROUND_TRIPS; i++) {
+                    out.writeInt(PAYLOAD_BYTES);
+                    out.write(PAYLOAD);
+                    out.flush();
+                    in.readFully(response, 0, in.readInt());
+                    NetworkStats.transferred(2L * (Integer.BYTES + PAYLOAD_BYTES));
+                }
+            } finally {
+                NetworkStats.connectionClosed();
+            }
+            Blackhole.consume(response);
+        } catch (IOException e) {
+            NetworkStats.failed();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void tcpAsync() {
+        ByteBuffer request = frame();
+        ByteBuffer response = ByteBuffer.allocate(request.capacity());
+        try (AsynchronousSocketChannel channel = AsynchronousSocketChannel.open()) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // SO_LINGER isn't supported here
+            channel.connect(Loopback.SERVER.tcpAddress()).get();
+            NetworkStats.connectionOpened();
+            try {
+                for (int i = 0; i < ROUND_TRIPS; i++) {
+                    request.rewind();
+                    while (request.hasRemaining()) {
+                        channel.write(request).get();
+                    }
+                    response.clear();
+                    while (response.hasRemaining()) {
+                        if (channel.read(response).get() < 0) {
+                            throw new IOException("Echo server closed the connection early");
+                        }
+                    }
+                    NetworkStats.transferred(request.capacity() + response.capacity());
+                }
+            } finally {
+                NetworkStats.connectionClosed();
+            }
+            Blackhole.consume(response);
+        } catch (IOException e) {
+            NetworkStats.failed();
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            NetworkStats.failed();
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            NetworkStats.failed();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted during async exchange"));
+        }
+    }
+
+    public static void tcpNio() {
+        Exchange exchange = new Exchange(frame());
+        NioClient.INSTANCE.submit(exchange);
+        try {
+            exchange.done.orTimeout(NIO_TIMEOUT_SECONDS, TimeUnit.SECONDS).join();
+        } catch (RuntimeException e) {
+            NetworkStats.failed();
+            throw e;
+        }
+    }
+
+    public static void udp() {
+        int length = Math.min(PAYLOAD_BYTES, EchoServer.MAX_DATAGRAM);
+        byte[] response = new byte[length];
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.connect(Loopback.SERVER.udpAddress());
+            socket.setSoTimeout(UDP_TIMEOUT_MS);
+            NetworkStats.connectionOpened();
+            try {
+                for (int i = 0; i < ROUND_TRIPS; i++) {
+                    roundTrip(socket, new DatagramPacket(PAYLOAD, length), new DatagramPacket(response, length));
+                    NetworkStats.transferred(2L * length);
+                }
+            } finally {
+                NetworkStats.connectionClosed();
+            }
+            Blackhole.consume(response);
+        } catch (IOException e) {
+            NetworkStats.failed();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Loopback datagrams can still be dropped when the receive buffer overflows, so resend on timeout
+    private static void roundTrip(DatagramSocket socket, DatagramPacket request, DatagramPacket response) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            socket.send(request);
+            try {
+                socket.receive(response);
+                return;
+            } catch (SocketTimeoutException e) {
+                if (attempt == UDP_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Length-prefixed request frame as the echo server expects it
+    private static ByteBuffer frame() {
+        return ByteBuffer.allocate(Integer.BYTES + PAYLOAD_BYTES).putInt(PAYLOAD_BYTES).put(PAYLOAD).flip();
+    }
+
+    private static class Exchange {
+        final ByteBuffer request;
+        final ByteBuffer response;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        SocketChannel channel;
+        int remainingRoundTrips = ROUND_TRIPS;
+
+        Exchange(ByteBuffer request) {
+            this.request = request;
+            this.response = ByteBuffer.allocate(request.capacity());
+        }
+    }
+
+    /**
+     * Single-threaded NIO client: one selector drives every in-flight exchange through
+     * connect -> write -> read, so no thread ever blocks on a socket. A failing exchange is
+     * failed on its own; if the loop itself fails, every outstanding exchange is failed, and
+     * once the thread has stopped new exchanges fail immediately.
+     */
+    private static class NioClient {
+        static final NioClient INSTANCE = new NioClient();
+
+        private final Selector selector;
+        private final ConcurrentLinkedQueue<Exchange> pending = new ConcurrentLinkedQueue<>();
+        private volatile boolean running = true;
+
+        private NioClient() {
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Thread.ofPlatform().daemon().name("nio-client").start(this::selectLoop);
+        }
+
+        void submit(Exchange exchange) {
+            pending.offer(exchange);
+            if (!running) {
+                failPending(new IllegalStateException("NIO client thread has stopped"));
+                return;
+            }
+            selector.wakeup();
+        }
+
+        private void selectLoop() {
+            Throwable stopped = new IllegalStateException("NIO client selector closed");
+            try {
+                while (selector.isOpen()) {
+                    try {
+                        selector.select();
+                        Exchange exchange;
+                        while ((exchange = pending.poll()) != null) {
+                            open(exchange);
+                        }
+                        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                        while (keys.hasNext()) {
+                            SelectionKey key = keys.next();
+                            keys.remove();
+                            handle(key, (Exchange) key.attachment());
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("⚠️ NIO client select failed: " + e);
+                        failRegistered(e);
+                    }
+                }
+            } catch (Throwable t) {
+                stopped = t;
+                throw t;
+            } finally {
+                running = false;
+                failRegistered(stopped);
+                failPending(stopped);
+            }
+        }
+
+        private void failRegistered(Throwable cause) {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Exchange exchange) {
+                    fail(exchange, cause);
+                }
+            }
+        }
+
+        private void failPending(Throwable cause) {
+            Exchange exchange;
+            while ((exchange = pending.poll()) != null) {
+                fail(exchange, cause);
+            }
+        }
+
+        private void open(Exchange exchange) {
+            try {
+                SocketChannel channel = SocketChannel.open();
+                exchange.channel = channel;
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+                InetSocketAddress address = Loopback.SERVER.tcpAddress();
+                if (channel.connect(address)) {
+                    connected(exchange, channel.register(selector, SelectionKey.OP_WRITE, exchange));
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, exchange);
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(exchange, e);
+            }
+        }
+
+        private void handle(SelectionKey key, Exchange exchange) {
+            try {
+                if (key.isConnectable()) {
+                    exchange.channel.finishConnect();
+                    connected(exchange, key);
+                    key.interestOps(SelectionKey.OP_WRITE);
+                } else if (key.isWritable()) {
+                    exchange.channel.write(exchange.request);
+                    if (!exchange.request.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                } else if (key.isReadable()) {
+                    if (exchange.channel.read(exchange.response) < 0) {
+                        throw new IOException("Echo server closed the connection early");
+                    }
+                    if (!exchange.response.hasRemaining()) {
+                        NetworkStats.transferred(exchange.request.capacity() + exchange.response.capacity());
+                        if (--exchange.remainingRoundTrips > 0) {
+                            exchange.request.rewind();
+                            exchange.response.clear();
+                            key.interestOps(SelectionKey.OP_WRITE);
+                        } else {
+                            close(exchange);
+                            exchange.done.complete(null);
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(exchange, e);
+            }
+        }
+
+        private static void connected(Exchange exchange, SelectionKey key) {
+            NetworkStats.connectionOpened();
+            key.attach(exchange);
+        }
+
+        private static void fail(Exchange exchange, Throwable cause) {
+            close(exchange);
+            exchange.done.completeExceptionally(cause instanceof IOException e ? new UncheckedIOException(e) : cause);
+        }
+
+        private static void close(Exchange exchange) {
+            SocketChannel channel = exchange.channel;
+            if (channel == null || !channel.isOpen()) {
+                return;
+            }
+            if (channel.isConnected()) {
+                NetworkStats.connectionClosed();
+            }
+            try {
+                channel.close(); // also cancels the selection key
+            } catch (IOException ignored) {
+                // Already reset
+            }
+        }
+    }
+
+    // Holder idiom: the server is only started when a network task first needs it
+    private static class Loopback {
+        static final EchoServer SERVER;
+
+        static {
+            try {
+                SERVER = new EchoServer(0, () -> ECHO_DELAY.isZero() ? 0 : ECHO_DELAY.sampleNanos());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
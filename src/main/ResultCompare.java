@@ -0,0 +1,249 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import utils.ResultStore;
+import utils.ResultStore.StoredRun;
+
+/**
+ * Compares the runs stored under two labels in the {@link ResultStore} and flags throughput
+ * and p99 service time regressions, e.g. to gate a JDK or GC upgrade:
+ *
+ * <pre>
+ * java -Dresults.label=jdk21-g1  ... main.MatrixRunner ...
+ * java -Dresults.label=jdk21-zgc -XX:+UseZGC ... main.MatrixRunner ...
+ * java --enable-preview -cp out main.ResultCompare --baseline=jdk21-g1 --candidate=jdk21-zgc
+ * java --enable-preview -cp out main.ResultCompare --list
+ * </pre>
+ *
+ * Runs are grouped by strategy, task type, task count, pool size, batch size and arrival model
+ * (runs stored before pool and batch sizes were recorded count as 0, the strategy default). Within a group the
+ * two samples are compared with a two-sided Mann-Whitney U test, and the change in median is
+ * given with a bootstrap 95% confidence interval. A change is a regression when p is below
+ * {@code alpha} (0.05), the whole interval lies on the worse side and the median moved by at
+ * least {@code minChange} percent (1). Exits with status 1 if any regression was found.
+ *
+ * Options: {@code --store=path}, {@code --baseline=label}, {@code --candidate=label},
+ * {@code --alpha=0.05}, {@code --minChange=1}, {@code --list}.
+ */
+public class ResultCompare {
+
+    private static final int MIN_SAMPLES = 3;
+    private static final int BOOTSTRAP_RESAMPLES = 2000;
+
+    // Field compared, and whether a higher value is better
+    private static final Map<String, Boolean> COMPARED = new LinkedHashMap<>();
+
+    static {
+        COMPARED.put("throughput", true);
+        COMPARED.put("serviceP99Ms", false);
+    }
+
+    private record Comparison(double baselineMedian, double candidateMedian, double changePct,
+                              double ciLowPct, double ciHighPct, double pValue) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Properties options = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.setProperty(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        Path storePath = options.containsKey("store") ? Path.of(options.getProperty("store")) : ResultStore.defaultPath();
+        if (storePath == null) {
+            throw new IllegalArgumentException("No result store: pass --store=path");
+        }
+
+        // group -> label -> runs
+        Map<String, Map<String, List<StoredRun>>> groups = new TreeMap<>();
+        new ResultStore(storePath).scan(run -> groups
+                .computeIfAbsent(groupKey(run), k -> new TreeMap<>())
+                .computeIfAbsent(run.label(), k -> new ArrayList<>())
+                .add(run));
+
+        if (options.containsKey("list") || !options.containsKey("baseline") || !options.containsKey("candidate")) {
+            list(storePath, groups);
+            return;
+        }
+
+        String baseline = options.getProperty("baseline");
+        String candidate = options.getProperty("candidate");
+        double alpha = Double.parseDouble(options.getProperty("alpha", "0.05"));
+        double minChange = Double.parseDouble(options.getProperty("minChange", "1"));
+
+        System.out.printf(Locale.ROOT, "Comparing %s (candidate) against %s (baseline), alpha %.3f, min change %.1f%%%n%n",
+                candidate, baseline, alpha, minChange);
+        int regressions = 0;
+        int compared = 0;
+        for (Map.Entry<String, Map<String, List<StoredRun>>> group : groups.entrySet()) {
+            List<StoredRun> base = group.getValue().getOrDefault(baseline, List.of());
+            List<StoredRun> cand = group.getValue().getOrDefault(candidate, List.of());
+            if (base.isEmpty() || cand.isEmpty()) {
+                continue;
+            }
+            System.out.println(group.getKey());
+            for (Map.Entry<String, Boolean> field : COMPARED.entrySet()) {
+                double[] x = values(base, field.getKey());
+                double[] y = values(cand, field.getKey());
+                if (x.length < MIN_SAMPLES || y.length < MIN_SAMPLES) {
+                    System.out.printf(Locale.ROOT, "  %-13s n=%d/%d, need at least %d runs per label%n",
+                            field.getKey(), x.length, y.length, MIN_SAMPLES);
+                    continue;
+                }
+                compared++;
+                Comparison c = compare(x, y);
+                boolean higherIsBetter = field.getValue();
+                boolean worse = higherIsBetter ? c.ciHighPct() < 0 : c.ciLowPct() > 0;
+                boolean better = higherIsBetter ? c.ciLowPct() > 0 : c.ciHighPct() < 0;
+                boolean significant = c.pValue() < alpha && Math.abs(c.changePct()) >= minChange;
+                String verdict = significant && worse ? "REGRESSION" : significant && better ? "improvement" : "no significant change";
+                if (significant && worse) {
+                    regressions++;
+                }
+                System.out.printf(Locale.ROOT, "  %-13s n=%d/%d  median %.2f -> %.2f  %+.1f%% [%+.1f%%, %+.1f%%]  p=%.4f  %s%n",
+                        field.getKey(), x.length, y.length, c.baselineMedian(), c.candidateMedian(),
+                        c.changePct(), c.ciLowPct(), c.ciHighPct(), c.pValue(), verdict);
+            }
+        }
+
+        if (compared == 0) {
+            System.out.println("No group has runs under both labels.");
+        }
+        System.out.println("\n" + regressions + " regression(s) found.");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String groupKey(StoredRun run) {
+        return String.format(Locale.ROOT, "%s / %s / %d tasks / pool %d / batch %d / %s",
+                run.threadType(), run.taskType(), (long) run.value("taskCount"),
+                (long) run.value("poolSize"), (long) run.value("batchSize"), run.arrivalModel());
+    }
+
+    private static void list(Path storePath, Map<String, Map<String, List<StoredRun>>> groups) {
+        System.out.println("Result store " + storePath + "\n");
+        for (Map.Entry<String, Map<String, List<StoredRun>>> group : groups.entrySet()) {
+            System.out.println(group.getKey());
+            for (Map.Entry<String, List<StoredRun>> label : group.getValue().entrySet()) {
+                StoredRun last = label.getValue().get(label.getValue().size() - 1);
+                System.out.printf(Locale.ROOT, "  %-20s %4d runs, median %.0f tasks/sec, p99 %.2f ms  (%s, %s, %d cores, commit %.8s)%n",
+                        label.getKey(), label.getValue().size(),
+                        median(sorted(values(label.getValue(), "throughput"))),
+                        median(sorted(values(label.getValue(), "serviceP99Ms"))),
+                        last.jvm(), last.gc(), last.cores(), last.gitCommit());
+            }
+        }
+    }
+
+    private static double[] values(List<StoredRun> runs, String field) {
+        return runs.stream().mapToDouble(r -> r.value(field)).filter(v -> !Double.isNaN(v)).toArray();
+    }
+
+    private static Comparison compare(double[] baseline, double[] candidate) {
+        double baseMedian = median(sorted(baseline));
+        double candMedian = median(sorted(candidate));
+
+        // Bootstrap the relative change in median by resampling both sides with replacement
+        SplittableRandom random = new SplittableRandom(42);
+        double[] changes = new double[BOOTSTRAP_RESAMPLES];
+        double[] x = new double[baseline.length];
+        double[] y = new double[candidate.length];
+        for (int b = 0; b < BOOTSTRAP_RESAMPLES; b++) {
+            for (int i = 0; i < x.length; i++) {
+                x[i] = baseline[random.nextInt(baseline.length)];
+            }
+            for (int i = 0; i < y.length; i++) {
+                y[i] = candidate[random.nextInt(candidate.length)];
+            }
+            changes[b] = relativeChange(median(sorted(x)), median(sorted(y)));
+        }
+        Arrays.sort(changes);
+        return new Comparison(baseMedian, candMedian, relativeChange(baseMedian, candMedian),
+                changes[(int) (0.025 * (BOOTSTRAP_RESAMPLES - 1))], changes[(int) Math.ceil(0.975 * (BOOTSTRAP_RESAMPLES - 1))],
+                mannWhitneyP(baseline, candidate));
+    }
+
+    /** Two-sided p-value of the Mann-Whitney U test (normal approximation, tie and continuity corrected). */
+    private static double mannWhitneyP(double[] x, double[] y) {
+        int n1 = x.length;
+        int n2 = y.length;
+        int n = n1 + n2;
+        double[][] pooled = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            pooled[i] = new double[] {x[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            pooled[n1 + i] = new double[] {y[i], 1};
+        }
+        Arrays.sort(pooled, (a, b) -> Double.compare(a[0], b[0]));
+
+        // Average ranks over ties, summing t^3 - t for the variance correction
+        double rankSumX = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && pooled[j + 1][0] == pooled[i][0]) {
+                j++;
+            }
+            double rank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (pooled[k][1] == 0) {
+                    rankSumX += rank;
+                }
+            }
+            int t = j - i + 1;
+            tieTerm += (double) t * t * t - t;
+            i = j + 1;
+        }
+
+        double u = rankSumX - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2.0;
+        double variance = n1 * (double) n2 / 12.0 * ((n + 1) - tieTerm / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1.0; // every value identical
+        }
+        double z = (Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1.0, 2 * (1 - normalCdf(Math.max(0, z))));
+    }
+
+    // Abramowitz & Stegun 7.1.26, absolute error below 1.5e-7
+    private static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    private static double relativeChange(double from, double to) {
+        return from == 0 ? 0 : 100 * (to - from) / from;
+    }
+
+    private static double[] sorted(double[] values) {
+        double[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static double median(double[] sorted) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+}
@@ -0,0 +1,80 @@
+package main;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service-time distribution for workload phases, parsed from a short spec:
+ *
+ * <pre>
+ * fixed:5ms
+ * exp:5ms                  exponential with the given mean
+ * lognormal:5ms:0.8        median and sigma of the underlying normal
+ * bimodal:2ms:50ms:0.05    fast mode, slow mode, probability of the slow mode
+ * </pre>
+ *
+ * Durations accept ns, us, ms and s suffixes. A duration of 0 disables the phase.
+ */
+public class ServiceTime {
+
+    public enum Kind { FIXED, EXPONENTIAL, LOGNORMAL, BIMODAL }
+
+    private final String spec;
+    private final Kind kind;
+    private final double a;
+    private final double b;
+    private final double c;
+
+    private ServiceTime(String spec, Kind kind, double a, double b, double c) {
+        this.spec = spec;
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+        this.c = c;
+    }
+
+    public static ServiceTime parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        return switch (parts[0].toLowerCase()) {
+            case "fixed" -> new ServiceTime(spec, Kind.FIXED, nanos(parts[1]), 0, 0);
+            case "exp", "exponential" -> new ServiceTime(spec, Kind.EXPONENTIAL, nanos(parts[1]), 0, 0);
+            case "lognormal" -> new ServiceTime(spec, Kind.LOGNORMAL, Math.log(Math.max(1, nanos(parts[1]))), Double.parseDouble(parts[2]), 0);
+            case "bimodal" -> new ServiceTime(spec, Kind.BIMODAL, nanos(parts[1]), nanos(parts[2]), Double.parseDouble(parts[3]));
+            default -> throw new IllegalArgumentException("Unknown service-time distribution: " + spec);
+        };
+    }
+
+    /** Draws one service time in nanoseconds. */
+    public long sampleNanos() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double nanos = switch (kind) {
+            case FIXED -> a;
+            case EXPONENTIAL -> -a * Math.log(1.0 - random.nextDouble());
+            case LOGNORMAL -> Math.exp(a + b * random.nextGaussian());
+            case BIMODAL -> random.nextDouble() < c ? b : a;
+        };
+        return (long) nanos;
+    }
+
+    public boolean isZero() {
+        return kind == Kind.FIXED && a == 0;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    static long nanos(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ns")) {
+            return Long.parseLong(v.substring(0, v.length() - 2));
+        } else if (v.endsWith("us")) {
+            return (long) (Double.parseDouble(v.substring(0, v.length() - 2)) * 1_000);
+        } else if (v.endsWith("ms")) {
+            return (long) (Double.parseDouble(v.substring(0, v.length() - 2)) * 1_000_000);
+        } else if (v.endsWith("s")) {
+            return (long) (Double.parseDouble(v.substring(0, v.length() - 1)) * 1_000_000_000);
+        }
+        return (long) (Double.parseDouble(v) * 1_000_000); // bare numbers are milliseconds
+    }
+}
@@ -2,16 +2,19 @@ package main;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
-import java.util.Random;
+
+import utils.Blackhole;
 
 public class TaskSimulator {
 
     // Simulates CPU-bound task by checking a large prime
     public static void simulateCPU() {
         final int num = 15485863;
+        int divisors = 0;
         for (int i = 2; i * i <= num; i++) {
-            if (num % i == 0) return;
+            if (num % i == 0) divisors++;
         }
+        Blackhole.consume(divisors); // keeps the JIT from discarding the loop
     }
 
     // Simulates I/O-bound task with sleep and optional file access
@@ -34,19 +37,21 @@ public class TaskSimulator {
     // Simulates mixed CPU + IO-bound task
     public static void simulateMixed() {
         simulateIO();
+        simulateMixedCompute();
+    }
+
+    // CPU half of the mixed task, split out so pipelined strategies can run it on a separate pool
+    public static void simulateMixedCompute() {
+        double sum = 0;
         for (int i = 0; i < 10_000; i++) {
-            Math.log(i + 1);
+            sum += Math.log(i + 1);
         }
+        Blackhole.consume(sum);
     }
 
-    // Simulates memory-bound workload
+    // Simulates memory-bound workload on a reusable buffer (see MemoryWorkload for the full family)
     public static void simulateMemory() {
-        int size = 5_000_000;
-        int[] memoryHog = new int[size];
-        Random rand = new Random();
-        for (int i = 0; i < size; i++) {
-            memoryHog[i] = rand.nextInt();
-        }
+        MemoryWorkload.fillAndSum();
     }
 
     public static void run(String taskType) {
@@ -55,6 +60,22 @@ public class TaskSimulator {
             case "IO" -> simulateIO();
             case "MIXED" -> simulateMixed();
             case "MEMORY" -> simulateMemory(); // NEW
+            case "MEM_STREAM" -> MemoryWorkload.streamScan();
+            case "MEM_CHASE_L2" -> MemoryWorkload.chaseL2();
+            case "MEM_CHASE_L3" -> MemoryWorkload.chaseL3();
+            case "MEM_CHASE_DRAM" -> MemoryWorkload.chaseDram();
+            case "SERVICE" -> WorkloadEngine.simulateService();
+            case "FILE" -> WorkloadEngine.simulateFileRead();
+            case "MMAP" -> WorkloadEngine.simulateMappedRead();
+            case "SOCKET", "TCP_BLOCKING" -> NetworkWorkload.tcpBlocking();
+            case "TCP_NIO" -> NetworkWorkload.tcpNio();
+            case "TCP_ASYNC" -> NetworkWorkload.tcpAsync();
+            case "UDP" -> NetworkWorkload.udp();
+            case "LOCK_SYNC_IO" -> ContentionWorkload.synchronizedIo();
+            case "LOCK_REENTRANT" -> ContentionWorkload.reentrantIo();
+            case "LOCK_STAMPED" -> ContentionWorkload.stampedRead();
+            case "LOCK_STRIPED" -> ContentionWorkload.stripedUpdate();
+            case "CACHE" -> ContentionWorkload.cacheLookup();
             default -> throw new IllegalArgumentException("Unknown task type: " + taskType);
         }
     }
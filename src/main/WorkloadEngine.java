@@ -0,0 +1,151 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import utils.Blackhole;
+
+/**
+ * Configurable workloads with realistic variance and real local I/O.
+ *
+ * Configuration is read once from system properties:
+ *
+ * <pre>
+ * workload.cpu=exp:1ms                  CPU phase of SERVICE tasks (see {@link ServiceTime})
+ * workload.block=lognormal:20ms:0.5     blocking phase of SERVICE tasks
+ * workload.fileSizeMB=64                size of the generated data file
+ * workload.blockKB=64                   bytes read per FILE / MMAP task
+ * </pre>
+ *
+ * The data file is created lazily on first use and shared by all tasks of the JVM; it must hold
+ * at least one block. MMAP maps at most the first 2 GB of it, and only draws blocks from that
+ * range. Network workloads live in {@link NetworkWorkload}.
+ */
+public class WorkloadEngine {
+
+    private static final ServiceTime CPU_TIME = ServiceTime.parse(System.getProperty("workload.cpu", "exp:1ms"));
+    private static final ServiceTime BLOCK_TIME = ServiceTime.parse(System.getProperty("workload.block", "lognormal:20ms:0.5"));
+    private static final long FILE_SIZE = Long.getLong("workload.fileSizeMB", 64) * 1024 * 1024;
+    private static final int BLOCK_SIZE = Integer.getInteger("workload.blockKB", 64) * 1024;
+
+    // Direct read buffers are reused across tasks; virtual threads make ThreadLocal caching useless
+    private static final ConcurrentLinkedQueue<ByteBuffer> READ_BUFFERS = new ConcurrentLinkedQueue<>();
+
+    // SERVICE: CPU phase then blocking phase, each drawn from its distribution
+    public static void simulateService() {
+        if (!CPU_TIME.isZero()) {
+            burnCpu(CPU_TIME.sampleNanos());
+        }
+        if (!BLOCK_TIME.isZero()) {
+            try {
+                Thread.sleep(Duration.ofNanos(BLOCK_TIME.sampleNanos()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Spins on integer math for the requested time; the result is consumed so it can't be elided
+    public static void burnCpu(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long x = ThreadLocalRandom.current().nextLong() | 1;
+        do {
+            for (int i = 0; i < 256; i++) {
+                x ^= x << 13;
+                x ^= x >>> 7;
+                x ^= x << 17;
+            }
+        } while (System.nanoTime() < deadline);
+        Blackhole.consume(x);
+    }
+
+    // FILE: positional read of one random block through FileChannel
+    public static void simulateFileRead() {
+        ByteBuffer buffer = READ_BUFFERS.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        }
+        try {
+            long position = randomBlockOffset(FILE_SIZE);
+            buffer.clear();
+            FileChannel channel = DataFile.CHANNEL;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            int read = buffer.position();
+            Blackhole.consume(read >= Long.BYTES ? buffer.getLong(0) ^ buffer.getLong(read - Long.BYTES) : read);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            READ_BUFFERS.offer(buffer);
+        }
+    }
+
+    // MMAP: scans one random block of the memory-mapped data file
+    public static void simulateMappedRead() {
+        MappedByteBuffer mapped = DataFile.MAPPED;
+        int offset = (int) randomBlockOffset(mapped.capacity());
+        long sum = 0;
+        for (int i = 0; i < BLOCK_SIZE; i += Long.BYTES) {
+            sum += mapped.getLong(offset + i);
+        }
+        Blackhole.consume(sum);
+    }
+
+    // Start of a whole block that fits in the first {@code size} bytes; DataFile guarantees at least one
+    private static long randomBlockOffset(long size) {
+        return ThreadLocalRandom.current().nextLong(size / BLOCK_SIZE) * BLOCK_SIZE;
+    }
+
+    // Holder idiom: the file is only created when a task first needs it
+    private static class DataFile {
+        static final FileChannel CHANNEL;
+        static final MappedByteBuffer MAPPED;
+
+        static {
+            if (BLOCK_SIZE <= 0 || FILE_SIZE < BLOCK_SIZE) {
+                throw new IllegalArgumentException("workload.fileSizeMB (" + FILE_SIZE / (1024 * 1024)
+                        + ") must hold at least one workload.blockKB block (" + BLOCK_SIZE / 1024 + ")");
+            }
+            try {
+                Path path = Path.of(System.getProperty("java.io.tmpdir"), "playground-workload-" + FILE_SIZE + ".dat");
+                if (!Files.exists(path) || Files.size(path) != FILE_SIZE) {
+                    generate(path);
+                }
+                CHANNEL = FileChannel.open(path, StandardOpenOption.READ);
+                MAPPED = CHANNEL.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(FILE_SIZE, Integer.MAX_VALUE));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static void generate(Path path) throws IOException {
+            SplittableRandom random = new SplittableRandom(42);
+            ByteBuffer chunk = ByteBuffer.allocateDirect(1024 * 1024);
+            try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (long written = 0; written < FILE_SIZE; ) {
+                    chunk.clear();
+                    while (chunk.remaining() >= Long.BYTES) {
+                        chunk.putLong(random.nextLong());
+                    }
+                    chunk.flip();
+                    chunk.limit((int) Math.min(chunk.limit(), FILE_SIZE - written));
+                    written += out.write(chunk);
+                }
+            }
+        }
+    }
+}
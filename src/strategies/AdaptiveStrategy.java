@@ -0,0 +1,103 @@
+package strategies;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import main.ArrivalSchedule;
+import main.Metrics;
+import main.TaskSimulator;
+import utils.ConcurrencyLimit;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+
+public class AdaptiveStrategy implements BenchmarkStrategy {
+
+    private static final long PERMIT_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConcurrencyLimit.Algorithm algorithm;
+    private final int initialLimit;
+    private final int maxLimit;
+    private final boolean shedExcess;
+    private final boolean enableDiagnostics;
+
+    public AdaptiveStrategy() {
+        this(ConcurrencyLimit.Algorithm.GRADIENT, 16, 10_000, false, false); // default: queue above the limit
+    }
+
+    public AdaptiveStrategy(ConcurrencyLimit.Algorithm algorithm, int initialLimit, int maxLimit,
+                            boolean shedExcess, boolean enableDiagnostics) {
+        this.algorithm = algorithm;
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.shedExcess = shedExcess;
+        this.enableDiagnostics = enableDiagnostics;
+    }
+
+    @Override
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit(algorithm, initialLimit, 1, maxLimit);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        AtomicInteger shedTasks = new AtomicInteger();
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+        Thread submitter = Thread.currentThread();
+
+        Instant start = Instant.now();
+
+        for (int i = 0; i < taskCount; i++) {
+            long enqueuedAt = arrivals.next(i);
+
+            // Above the limit: either drop the task or hold the submitter until a slot frees up
+            if (!limit.tryAcquire()) {
+                if (shedExcess) {
+                    shedTasks.incrementAndGet();
+                    completion.finished();
+                    continue;
+                }
+                do {
+                    LockSupport.parkNanos(PERMIT_WAIT_NANOS);
+                } while (!limit.tryAcquire());
+            }
+
+            int taskId = i;
+            executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                latency.started();
+
+                try {
+                    TaskSimulator.run(taskType);
+                    completion.succeeded();
+                } catch (Exception e) {
+                    System.err.println("Task failed: " + e.getMessage());
+                } finally {
+                    long endedAt = System.nanoTime();
+                    limit.release(endedAt - startedAt);
+                    LockSupport.unpark(submitter);
+                    latency.record(enqueuedAt, startedAt, endedAt);
+                    diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                    completion.finished();
+                }
+            });
+        }
+
+        if (!completion.await(10, TimeUnit.MINUTES)) {
+            System.err.println("⚠️ Timeout: Some tasks did not complete.");
+        }
+
+        Instant end = Instant.now();
+        executor.shutdown();
+
+        Metrics metrics = Metrics.calculate("Adaptive-" + algorithm, taskType, start, end, taskCount, completion.succeededCount(), latency);
+        metrics.details.put("Final Limit", limit.limit());
+        metrics.details.put("Peak Limit", limit.peakLimit());
+        metrics.details.put("Shed Tasks", shedTasks.get());
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+}
@@ -1,7 +1,13 @@
 package strategies;
 
+import main.ArrivalSchedule;
 import main.Metrics;
 
 public interface BenchmarkStrategy {
-    Metrics execute(String taskType, int taskCount) throws InterruptedException;
-}
\ No newline at end of file
+    default Metrics execute(String taskType, int taskCount) throws InterruptedException {
+        return execute(taskType, taskCount, ArrivalSchedule.closed());
+    }
+
+    // Tasks are released as the schedule dictates; latency is measured from the intended release time
+    Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException;
+}
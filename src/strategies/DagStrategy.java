@@ -0,0 +1,261 @@
+package strategies;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import main.ArrivalSchedule;
+import main.DagWorkload;
+import main.Metrics;
+import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+import utils.MemoryMonitor;
+import utils.ThreadSampler;
+
+/**
+ * Runs every task as one request shaped like a {@link DagWorkload}: a node starts once all of
+ * its parents have finished.
+ *
+ * <ul>
+ * <li>VIRTUAL / FORKJOIN: each request keeps a lock-free count of unfinished parents per node;
+ * the node that brings a child's count to zero submits it, on virtual threads or a ForkJoin pool.</li>
+ * <li>STRUCTURED: one scope per request nested in a scope for the run; the source nodes are
+ * forked into the request scope and each node forks the children it releases into the same
+ * scope, using the same parent counts, so the request is joined once its last node is done.</li>
+ * <li>FUTURE: CompletableFuture composition, {@code allOf(parents).thenRunAsync(node)} on virtual threads.</li>
+ * </ul>
+ *
+ * Per request, the critical path (longest chain of measured node durations) is compared with
+ * the makespan (first node start to last node end); the gap is time nodes spent ready but not running.
+ */
+public class DagStrategy implements BenchmarkStrategy {
+
+    public enum Mode { VIRTUAL, FORKJOIN, STRUCTURED, FUTURE }
+
+    private final Mode mode;
+    private final DagWorkload dag;
+    private final int parallelism;
+    private final boolean enableDiagnostics;
+
+    public DagStrategy(Mode mode) {
+        this(mode, DagWorkload.fromProperties(), Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    /** Parallelism only applies to the FORKJOIN mode. */
+    public DagStrategy(Mode mode, DagWorkload dag, int parallelism, boolean enableDiagnostics) {
+        this.mode = mode;
+        this.dag = dag;
+        this.parallelism = parallelism;
+        this.enableDiagnostics = enableDiagnostics;
+    }
+
+    private String name() {
+        return switch (mode) {
+            case VIRTUAL -> "DagVirtual";
+            case FORKJOIN -> "DagForkJoin";
+            case STRUCTURED -> "DagStructured";
+            case FUTURE -> "DagFuture";
+        };
+    }
+
+    /** One in-flight request: node timings plus its dependency counters. */
+    private class Request {
+        final int id;
+        final long enqueuedAt;
+        final long[] startedAt = new long[dag.nodes()];
+        final long[] endedAt = new long[dag.nodes()];
+        final AtomicIntegerArray pendingParents = new AtomicIntegerArray(dag.nodes());
+        final AtomicInteger remainingNodes = new AtomicInteger(dag.nodes());
+        volatile boolean failed;
+
+        Request(int id, long enqueuedAt) {
+            this.id = id;
+            this.enqueuedAt = enqueuedAt;
+            for (int n = 0; n < dag.nodes(); n++) {
+                pendingParents.set(n, dag.parents(n).length);
+            }
+        }
+    }
+
+    /** Per-run state shared by all requests. */
+    private class Run {
+        final String taskType;
+        final CompletionTracker completion;
+        final LatencyRecorder latency = new LatencyRecorder();
+        final DiagnosticsRecorder diagnostics;
+        final LongAdder criticalPathNanos = new LongAdder();
+        final LongAdder makespanNanos = new LongAdder();
+
+        Run(String taskType, int taskCount) {
+            this.taskType = taskType;
+            this.completion = new CompletionTracker(taskCount);
+            this.diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+        }
+
+        void runNode(Request request, int node) {
+            long startedAt = System.nanoTime();
+            if (node == 0) {
+                latency.started(); // once per request, for the live running/queue gauges
+            }
+            try {
+                TaskSimulator.run(dag.taskType(node, taskType));
+            } catch (Exception e) {
+                request.failed = true;
+                System.err.println("Task failed: " + e.getMessage());
+            } finally {
+                request.startedAt[node] = startedAt;
+                request.endedAt[node] = System.nanoTime();
+            }
+        }
+
+        // Called once, after every node of the request has finished
+        void finish(Request request) {
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            long[] durations = new long[dag.nodes()];
+            for (int n = 0; n < durations.length; n++) {
+                first = Math.min(first, request.startedAt[n]);
+                last = Math.max(last, request.endedAt[n]);
+                durations[n] = request.endedAt[n] - request.startedAt[n];
+            }
+            latency.record(request.enqueuedAt, first, last);
+            diagnostics.record(request.id, request.enqueuedAt, first, last);
+            criticalPathNanos.add(dag.criticalPathNanos(durations));
+            makespanNanos.add(last - first);
+            if (!request.failed) {
+                completion.succeeded();
+            }
+            completion.finished();
+        }
+    }
+
+    @Override
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        Run run = new Run(taskType, taskCount);
+        Instant start = Instant.now();
+
+        switch (mode) {
+            case VIRTUAL -> runCounted(run, Executors.newVirtualThreadPerTaskExecutor(), taskCount, arrivals);
+            case FORKJOIN -> runCounted(run, ThreadSampler.newPool(new ForkJoinPool(parallelism, MemoryMonitor.FORK_JOIN_FACTORY, null, false)), taskCount, arrivals);
+            case STRUCTURED -> runStructured(run, taskCount, arrivals);
+            case FUTURE -> runFutures(run, taskCount, arrivals);
+        }
+
+        Instant end = Instant.now();
+        Metrics metrics = Metrics.calculate(name(), dag.describe(taskType), start, end, taskCount, run.completion.succeededCount(), run.latency);
+        long finished = Math.max(1, run.completion.finishedCount());
+        metrics.criticalPathMs = run.criticalPathNanos.sum() / 1e6 / finished;
+        metrics.makespanMs = run.makespanNanos.sum() / 1e6 / finished;
+        metrics.details.put("DAG Nodes", dag.nodes() + " per request, " + (long) dag.nodes() * taskCount + " total");
+        if (mode == Mode.FORKJOIN) {
+            metrics.details.put("Parallelism", parallelism);
+        }
+        run.diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    private void runCounted(Run run, ExecutorService executor, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        for (int i = 0; i < taskCount; i++) {
+            Request request = new Request(i, arrivals.next(i));
+            for (int n = 0; n < dag.sources(); n++) {
+                int node = n;
+                executor.execute(() -> runCountedNode(run, request, node, executor));
+            }
+        }
+        awaitCompletion(run);
+        executor.shutdown();
+    }
+
+    private void runCountedNode(Run run, Request request, int node, ExecutorService executor) {
+        run.runNode(request, node);
+        for (int child : dag.children(node)) {
+            // Exactly one parent sees the count reach zero, so every child is released once
+            if (request.pendingParents.decrementAndGet(child) == 0) {
+                executor.execute(() -> runCountedNode(run, request, child, executor));
+            }
+        }
+        if (request.remainingNodes.decrementAndGet() == 0) {
+            run.finish(request);
+        }
+    }
+
+    @SuppressWarnings("preview")
+    private void runStructured(Run run, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        try (var requests = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (int i = 0; i < taskCount; i++) {
+                Request request = new Request(i, arrivals.next(i));
+                requests.fork(() -> {
+                    try (var nodes = new StructuredTaskScope.ShutdownOnFailure()) {
+                        for (int n = 0; n < dag.sources(); n++) {
+                            forkNode(nodes, run, request, n);
+                        }
+                        nodes.join();
+                    }
+                    run.finish(request);
+                    return null;
+                });
+            }
+
+            if (!awaitCompletion(run)) {
+                requests.shutdown();
+            }
+            requests.join();
+        }
+    }
+
+    // Forks run inside the scope may fork into it too; join() waits for those as well
+    @SuppressWarnings("preview")
+    private void forkNode(StructuredTaskScope.ShutdownOnFailure nodes, Run run, Request request, int node) {
+        nodes.fork(() -> {
+            run.runNode(request, node);
+            for (int child : dag.children(node)) {
+                if (request.pendingParents.decrementAndGet(child) == 0) {
+                    forkNode(nodes, run, request, child);
+                }
+            }
+            return null;
+        });
+    }
+
+    private void runFutures(Run run, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < taskCount; i++) {
+            Request request = new Request(i, arrivals.next(i));
+            CompletableFuture<?>[] nodes = new CompletableFuture<?>[dag.nodes()];
+            for (int n = 0; n < nodes.length; n++) {
+                int node = n;
+                int[] parents = dag.parents(n);
+                Runnable task = () -> run.runNode(request, node);
+                if (parents.length == 0) {
+                    nodes[n] = CompletableFuture.runAsync(task, executor);
+                } else {
+                    CompletableFuture<?>[] dependencies = new CompletableFuture<?>[parents.length];
+                    for (int k = 0; k < parents.length; k++) {
+                        dependencies[k] = nodes[parents[k]];
+                    }
+                    nodes[n] = CompletableFuture.allOf(dependencies).thenRunAsync(task, executor);
+                }
+            }
+            CompletableFuture.allOf(nodes).thenRun(() -> run.finish(request));
+        }
+        awaitCompletion(run);
+        executor.shutdown();
+    }
+
+    private static boolean awaitCompletion(Run run) throws InterruptedException {
+        boolean completed = run.completion.await(10, TimeUnit.MINUTES);
+        if (!completed) {
+            System.err.println("⚠️ Timeout: Some DAG requests did not finish within expected time.");
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,174 @@
+package strategies;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import main.ArrivalSchedule;
+import main.Metrics;
+import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+import utils.MemoryMonitor;
+
+/**
+ * Demand-driven strategy: tasks are published through a {@link SubmissionPublisher} and pulled
+ * by a single {@link Flow.Subscriber} that hands them to the worker executor.
+ *
+ * The subscriber requests {@code demandBatch} tasks up front and asks for another half batch
+ * each time half a batch has completed, so at most {@code demandBatch} tasks are ever in the
+ * executor. Everything else waits in the publisher's bounded buffer; once that is full the
+ * submitting thread blocks, which is reported as publisher blocking time together with the
+ * buffer high-water mark.
+ */
+public class FlowStrategy implements BenchmarkStrategy {
+
+    /** Publisher buffer from {@code flow.bufferSize}, the JDK's 256 by default. */
+    public static final int DEFAULT_BUFFER_SIZE = Integer.getInteger("flow.bufferSize", Flow.defaultBufferSize());
+
+    private final int demandBatch;
+    private final int bufferCapacity;
+    private final int poolSize;
+    private final boolean enableDiagnostics;
+
+    public FlowStrategy() {
+        this(64, DEFAULT_BUFFER_SIZE, 0, false); // default: virtual workers, flow.bufferSize buffer
+    }
+
+    /** A pool size of 0 runs every task on its own virtual thread instead of a fixed pool. */
+    public FlowStrategy(int demandBatch, int bufferCapacity, int poolSize, boolean enableDiagnostics) {
+        this.demandBatch = Math.max(1, demandBatch);
+        this.bufferCapacity = bufferCapacity;
+        this.poolSize = poolSize;
+        this.enableDiagnostics = enableDiagnostics;
+    }
+
+    private record Job(int taskId, long enqueuedAt) {
+    }
+
+    @Override
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+
+        ExecutorService workers = poolSize > 0 ? Executors.newFixedThreadPool(poolSize, MemoryMonitor.trackingFactory(Executors.defaultThreadFactory())) : Executors.newVirtualThreadPerTaskExecutor();
+        // The publisher runs the subscriber's delivery loop on this thread, never on a worker
+        ExecutorService delivery = Executors.newSingleThreadExecutor(MemoryMonitor.trackingFactory(Thread.ofPlatform().name("flow-delivery").factory()));
+        SubmissionPublisher<Job> publisher = new SubmissionPublisher<>(delivery, bufferCapacity);
+        DemandSubscriber subscriber = new DemandSubscriber(taskType, workers, completion, latency, diagnostics);
+        publisher.subscribe(subscriber);
+
+        long bufferHighWater = 0;
+        long blockedNanos = 0;
+        long blockedSubmits = 0;
+        Instant start = Instant.now();
+
+        for (int i = 0; i < taskCount; i++) {
+            Job job = new Job(i, arrivals.next(i));
+            // Try without blocking first so only submits that actually hit a full buffer are timed
+            int lag = publisher.offer(job, null);
+            if (lag < 0) {
+                long blockedAt = System.nanoTime();
+                lag = publisher.submit(job);
+                blockedNanos += System.nanoTime() - blockedAt;
+                blockedSubmits++;
+            }
+            bufferHighWater = Math.max(bufferHighWater, lag);
+        }
+        publisher.close();
+
+        boolean completed = completion.await(10, TimeUnit.MINUTES);
+        Instant end = Instant.now();
+
+        if (!completed) {
+            System.err.println("⚠️ Timeout: Some tasks did not finish within expected time.");
+        }
+
+        workers.shutdown();
+        delivery.shutdown();
+        if (!workers.awaitTermination(1, TimeUnit.MINUTES) || !delivery.awaitTermination(1, TimeUnit.MINUTES)) {
+            System.err.println("⚠️ Executor did not shut down properly.");
+        }
+
+        String name = poolSize > 0 ? "FlowPool" : "Flow";
+        Metrics metrics = Metrics.calculate(name, taskType, start, end, taskCount, completion.succeededCount(), latency);
+        metrics.peakBufferedTasks = bufferHighWater;
+        metrics.publisherBlockedMs = TimeUnit.NANOSECONDS.toMillis(blockedNanos);
+        metrics.details.put("Flow", "demand batch " + demandBatch + ", buffer " + publisher.getMaxBufferCapacity() + ", "
+                + (poolSize > 0 ? poolSize + " platform workers" : "virtual workers"));
+        metrics.details.put("Blocked Submits", blockedSubmits + " of " + taskCount);
+        metrics.details.put("Peak In-Flight", subscriber.peakInFlight.get());
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    /** Runs each delivered job on the worker executor and replenishes demand as jobs complete. */
+    private class DemandSubscriber implements Flow.Subscriber<Job> {
+        private final String taskType;
+        private final ExecutorService workers;
+        private final CompletionTracker completion;
+        private final LatencyRecorder latency;
+        private final DiagnosticsRecorder diagnostics;
+        private final int refill = Math.max(1, demandBatch / 2);
+        private final AtomicLong finished = new AtomicLong();
+        private final AtomicLong inFlight = new AtomicLong();
+        final LongAccumulator peakInFlight = new LongAccumulator(Math::max, 0);
+        private Flow.Subscription subscription;
+
+        DemandSubscriber(String taskType, ExecutorService workers, CompletionTracker completion,
+                         LatencyRecorder latency, DiagnosticsRecorder diagnostics) {
+            this.taskType = taskType;
+            this.workers = workers;
+            this.completion = completion;
+            this.latency = latency;
+            this.diagnostics = diagnostics;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(demandBatch);
+        }
+
+        @Override
+        public void onNext(Job job) {
+            peakInFlight.accumulate(inFlight.incrementAndGet());
+            workers.execute(() -> {
+                long startedAt = System.nanoTime();
+                latency.started();
+
+                try {
+                    TaskSimulator.run(taskType);
+                    completion.succeeded();
+                } catch (Exception e) {
+                    System.err.println("Task failed: " + e.getMessage());
+                } finally {
+                    long endedAt = System.nanoTime();
+                    latency.record(job.enqueuedAt(), startedAt, endedAt);
+                    diagnostics.record(job.taskId(), job.enqueuedAt(), startedAt, endedAt);
+                    inFlight.decrementAndGet();
+                    if (finished.incrementAndGet() % refill == 0) {
+                        subscription.request(refill);
+                    }
+                    completion.finished();
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("⚠️ Publisher failed: " + throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -1,61 +1,79 @@
 package strategies;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
+import main.ArrivalSchedule;
 import main.Metrics;
 import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+import utils.LiveMetrics;
+import utils.MemoryMonitor;
+import utils.ThreadSampler;
 
 public class ForkJoinStrategy implements BenchmarkStrategy {
 
     private final int parallelism;
     private final boolean enableDiagnostics;
+    private final boolean rangeSplitting;
 
     public ForkJoinStrategy() {
         this(Runtime.getRuntime().availableProcessors(), false); // default: system CPU cores
     }
 
     public ForkJoinStrategy(int parallelism, boolean enableDiagnostics) {
+        this(parallelism, enableDiagnostics, false);
+    }
+
+    public ForkJoinStrategy(int parallelism, boolean enableDiagnostics, boolean rangeSplitting) {
         this.parallelism = parallelism;
         this.enableDiagnostics = enableDiagnostics;
+        this.rangeSplitting = rangeSplitting;
     }
 
     @Override
-    public Metrics execute(String taskType, int taskCount) throws InterruptedException {
-        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
-            CountDownLatch latch = new CountDownLatch(taskCount);
-            AtomicInteger completedTasks = new AtomicInteger(0);
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        // Range splitting releases every task at once, so paced arrivals keep per-task submission
+        if (rangeSplitting && !arrivals.isOpenLoop()) {
+            return executeRanges(taskType, taskCount);
+        }
+
+        try (ForkJoinPool pool = ThreadSampler.newPool(new ForkJoinPool(parallelism, MemoryMonitor.FORK_JOIN_FACTORY, null, false))) {
+            CompletionTracker completion = new CompletionTracker(taskCount);
+            LatencyRecorder latency = new LatencyRecorder();
+            DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
 
             Instant start = Instant.now();
 
             for (int i = 0; i < taskCount; i++) {
+                long enqueuedAt = arrivals.next(i);
+                int taskId = i;
                 pool.submit(() -> {
-                    Instant taskStart = null;
-                    if (enableDiagnostics) {
-                        taskStart = Instant.now();
-                    }
+                    long startedAt = System.nanoTime();
+                    latency.started();
 
                     try {
                         TaskSimulator.run(taskType);
-                        completedTasks.incrementAndGet();
+                        completion.succeeded();
                     } catch (Exception e) {
                         System.err.println("Task error: " + e.getMessage());
                     } finally {
-                        if (enableDiagnostics && taskStart != null) {
-                            Instant taskEnd = Instant.now();
-                            long duration = Duration.between(taskStart, taskEnd).toMillis();
-                            System.out.println("🧪 Task duration: " + duration + " ms");
-                        }
-                        latch.countDown();
+                        long endedAt = System.nanoTime();
+                        latency.record(enqueuedAt, startedAt, endedAt);
+                        diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                        completion.finished();
                     }
                 });
             }
 
-            boolean completed = latch.await(10, TimeUnit.MINUTES);
+            boolean completed = completion.await(10, TimeUnit.MINUTES);
             Instant end = Instant.now();
 
             if (!completed) {
@@ -67,7 +85,99 @@ public class ForkJoinStrategy implements BenchmarkStrategy {
                 System.err.println("⚠️ ForkJoinPool did not shut down cleanly.");
             }
 
-            return Metrics.calculate("ForkJoin", taskType, start, end, taskCount, completedTasks.get());
+            Metrics metrics = Metrics.calculate("ForkJoin", taskType, start, end, taskCount, completion.succeededCount(), latency);
+            diagnostics.attach(metrics);
+            return metrics;
+        }
+    }
+
+    // One RecursiveAction over [0, taskCount): no per-task lambda, wrapper, latch or shared counter
+    private Metrics executeRanges(String taskType, int taskCount) throws InterruptedException {
+        try (ForkJoinPool pool = ThreadSampler.newPool(new ForkJoinPool(parallelism, MemoryMonitor.FORK_JOIN_FACTORY, null, false))) {
+            LongAdder completedTasks = new LongAdder();
+            LatencyRecorder latency = new LatencyRecorder();
+            DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+
+            Instant start = Instant.now();
+            LiveMetrics.submitted(taskCount); // the whole range is released at once
+            RangeRun run = new RangeRun(taskType, System.nanoTime(), completedTasks, latency, diagnostics);
+            RangeTask root = new RangeTask(run, 0, taskCount, null);
+            pool.execute(root);
+
+            try {
+                root.get(10, TimeUnit.MINUTES);
+            } catch (TimeoutException e) {
+                System.err.println("⚠️ Timeout: Some tasks did not complete.");
+            } catch (ExecutionException e) {
+                System.err.println("Task error: " + e.getCause());
+            }
+            Instant end = Instant.now();
+
+            pool.shutdown();
+            if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("⚠️ ForkJoinPool did not shut down cleanly.");
+            }
+
+            Metrics metrics = Metrics.calculate("ForkJoin-Ranges", taskType, start, end, taskCount, completedTasks.intValue(), latency);
+            diagnostics.attach(metrics);
+            return metrics;
+        }
+    }
+
+    // State shared by every range of one run
+    private record RangeRun(String taskType, long enqueuedAt, LongAdder completedTasks,
+                            LatencyRecorder latency, DiagnosticsRecorder diagnostics) {
+    }
+
+    @SuppressWarnings("serial") // never serialized; RecursiveAction is Serializable only by inheritance
+    private static class RangeTask extends RecursiveAction {
+        // Keep splitting while fewer than this many tasks sit in our queue beyond what idle workers can steal
+        private static final int SURPLUS_THRESHOLD = 3;
+
+        private final RangeRun run;
+        private final int from;
+        private final int to;
+        private final RangeTask next; // previously forked sibling, joined in reverse order
+
+        RangeTask(RangeRun run, int from, int to, RangeTask next) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            int lo = from;
+            int hi = to;
+            RangeTask forked = null;
+            while (hi - lo > 1 && getSurplusQueuedTaskCount() <= SURPLUS_THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                forked = new RangeTask(run, mid, hi, forked);
+                forked.fork();
+                hi = mid;
+            }
+
+            int completed = 0;
+            for (int i = lo; i < hi; i++) {
+                long startedAt = System.nanoTime();
+                run.latency().started();
+                try {
+                    TaskSimulator.run(run.taskType());
+                    completed++;
+                } catch (Exception e) {
+                    System.err.println("Task error: " + e.getMessage());
+                } finally {
+                    long endedAt = System.nanoTime();
+                    run.latency().record(run.enqueuedAt(), startedAt, endedAt);
+                    run.diagnostics().record(i, run.enqueuedAt(), startedAt, endedAt);
+                }
+            }
+            run.completedTasks().add(completed);
+
+            for (RangeTask task = forked; task != null; task = task.next) {
+                task.join();
+            }
         }
     }
 }
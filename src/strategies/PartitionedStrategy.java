@@ -0,0 +1,226 @@
+package strategies;
+
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import main.ArrivalSchedule;
+import main.Metrics;
+import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+import utils.MemoryMonitor;
+
+/**
+ * Sharded scheduler: tasks are spread over independent partitions, each with its own queue
+ * and its own dedicated platform workers, instead of one global pool.
+ *
+ * Task i goes to partition i % partitions, so a partition always sees the same slice of the
+ * work. Workers take from the head of their own queue; when it runs dry they steal from the
+ * tail of the other partitions' queues before going idle.
+ *
+ * An idle worker parks until a submit unparks it. Each submit wakes one idle worker of the
+ * target partition, or failing that an idle worker of another partition, which then steals.
+ * A global count of parked workers lets a submit skip the scan entirely while everyone is busy.
+ * The default gives each partition {@code partitioned.workers} workers (1), so the default
+ * one partition per core runs one platform thread per core.
+ */
+public class PartitionedStrategy implements BenchmarkStrategy {
+
+    static final int DEFAULT_WORKERS = Integer.getInteger("partitioned.workers", 1);
+
+    private final int partitions;
+    private final int workersPerPartition;
+    private final boolean enableDiagnostics;
+
+    public PartitionedStrategy() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_WORKERS, false); // default: one partition per core
+    }
+
+    public PartitionedStrategy(int partitions, int workersPerPartition, boolean enableDiagnostics) {
+        this.partitions = partitions;
+        this.workersPerPartition = workersPerPartition;
+        this.enableDiagnostics = enableDiagnostics;
+    }
+
+    private record Job(int taskId, long enqueuedAt) {
+    }
+
+    private static class Worker {
+        final AtomicBoolean idle = new AtomicBoolean();
+        Thread thread;
+    }
+
+    private static class Partition {
+        final ConcurrentLinkedDeque<Job> queue = new ConcurrentLinkedDeque<>();
+        final Worker[] workers;
+        // Parked workers; entries whose idle flag has already been cleared are skipped
+        final ConcurrentLinkedQueue<Worker> idle = new ConcurrentLinkedQueue<>();
+        final LongAdder busyNanos = new LongAdder();
+        final LongAdder executed = new LongAdder();
+        final LongAdder stolen = new LongAdder();
+
+        Partition(int workers) {
+            this.workers = new Worker[workers];
+            for (int w = 0; w < workers; w++) {
+                this.workers[w] = new Worker();
+            }
+        }
+
+        // Claims one parked worker and unparks it; false if none is idle
+        boolean wakeOne(AtomicInteger idleWorkers) {
+            Worker worker;
+            while ((worker = idle.poll()) != null) {
+                if (worker.idle.compareAndSet(true, false)) {
+                    idleWorkers.decrementAndGet();
+                    LockSupport.unpark(worker.thread);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+        // Workers whose idle flag is set; a submit only scans the partitions when this is non-zero
+        AtomicInteger idleWorkers = new AtomicInteger();
+
+        Partition[] shards = new Partition[partitions];
+        for (int p = 0; p < partitions; p++) {
+            shards[p] = new Partition(workersPerPartition);
+        }
+        for (int p = 0; p < partitions; p++) {
+            Partition own = shards[p];
+            int index = p;
+            for (int w = 0; w < workersPerPartition; w++) {
+                Worker self = own.workers[w];
+                self.thread = Thread.ofPlatform().name("partition-" + p + "-worker-" + w).unstarted(MemoryMonitor.tracked(() -> {
+                    while (!completion.isDone() && !Thread.currentThread().isInterrupted()) {
+                        Job job = own.queue.pollFirst();
+                        if (job == null) {
+                            job = steal(shards, index);
+                            if (job == null) {
+                                // Advertise as idle, then look once more so a submit that missed the flag isn't lost
+                                if (self.idle.compareAndSet(false, true)) {
+                                    idleWorkers.incrementAndGet();
+                                    own.idle.offer(self);
+                                }
+                                VarHandle.fullFence();
+                                if (!hasWork(shards)) {
+                                    LockSupport.park(this);
+                                }
+                                if (self.idle.compareAndSet(true, false)) {
+                                    idleWorkers.decrementAndGet();
+                                }
+                                continue;
+                            }
+                            own.stolen.increment();
+                        }
+
+                        long startedAt = System.nanoTime();
+                        latency.started();
+                        try {
+                            TaskSimulator.run(taskType);
+                            completion.succeeded();
+                        } catch (Exception e) {
+                            System.err.println("Task failed: " + e.getMessage());
+                        } finally {
+                            long endedAt = System.nanoTime();
+                            own.busyNanos.add(endedAt - startedAt);
+                            own.executed.increment();
+                            latency.record(job.enqueuedAt(), startedAt, endedAt);
+                            diagnostics.record(job.taskId(), job.enqueuedAt(), startedAt, endedAt);
+                            completion.finished();
+                        }
+                    }
+                }));
+            }
+        }
+        for (Partition shard : shards) {
+            for (Worker worker : shard.workers) {
+                worker.thread.start();
+            }
+        }
+
+        Instant start = Instant.now();
+
+        for (int i = 0; i < taskCount; i++) {
+            long enqueuedAt = arrivals.next(i);
+            int targetIndex = i % partitions;
+            shards[targetIndex].queue.offerLast(new Job(i, enqueuedAt));
+            VarHandle.fullFence(); // publish the job before reading the idle count; pairs with the workers' fence
+            if (idleWorkers.get() == 0) {
+                continue; // every worker is busy or about to re-check the queues
+            }
+            // Prefer a worker of the owning partition; otherwise wake one elsewhere to steal it
+            for (int k = 0; k < partitions && !shards[(targetIndex + k) % partitions].wakeOne(idleWorkers); k++) {
+                // try the next partition
+            }
+        }
+
+        boolean completed = completion.await(10, TimeUnit.MINUTES);
+        Instant end = Instant.now();
+
+        if (!completed) {
+            System.err.println("⚠️ Timeout: Some tasks did not finish within expected time.");
+        }
+
+        for (Partition shard : shards) {
+            for (Worker worker : shard.workers) {
+                worker.thread.interrupt();
+            }
+        }
+        for (Partition shard : shards) {
+            for (Worker worker : shard.workers) {
+                worker.thread.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        }
+
+        Metrics metrics = Metrics.calculate("Partitioned", taskType, start, end, taskCount, completion.succeededCount(), latency);
+        long wallNanos = Math.max(1, Duration.between(start, end).toNanos());
+        long totalStolen = 0;
+        metrics.details.put("Partitions", partitions + " x " + workersPerPartition + " platform workers");
+        for (int p = 0; p < partitions; p++) {
+            Partition shard = shards[p];
+            totalStolen += shard.stolen.sum();
+            metrics.details.put("Partition " + p, String.format("%.1f%% busy, %d tasks run, %d stolen",
+                    100.0 * shard.busyNanos.sum() / ((double) wallNanos * workersPerPartition),
+                    shard.executed.sum(), shard.stolen.sum()));
+        }
+        metrics.details.put("Steals", totalStolen);
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    private static boolean hasWork(Partition[] shards) {
+        for (Partition shard : shards) {
+            if (!shard.queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Scans the other partitions starting with the next one, taking the newest job from the tail
+    private static Job steal(Partition[] shards, int self) {
+        for (int k = 1; k < shards.length; k++) {
+            Job job = shards[(self + k) % shards.length].queue.pollLast();
+            if (job != null) {
+                return job;
+            }
+        }
+        return null;
+    }
+}
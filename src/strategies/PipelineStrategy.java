@@ -0,0 +1,259 @@
+package strategies;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import main.ArrivalSchedule;
+import main.Metrics;
+import main.NetworkWorkload;
+import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+import utils.MemoryMonitor;
+import utils.MpscRingBuffer;
+
+/**
+ * Two-stage pipeline: the blocking part of each task runs on a virtual thread, the CPU part
+ * on a fixed set of platform workers. Each CPU worker owns a bounded MPSC ring buffer; IO
+ * stages hand off round-robin, fall back to the next buffer with room, and wait only when every
+ * buffer is full (backpressure), so CPU work never runs on the virtual-thread carriers.
+ *
+ * An idle CPU worker parks until a hand-off unparks it. Task types without a CPU stage finish
+ * on the IO thread and start no CPU workers at all.
+ */
+public class PipelineStrategy implements BenchmarkStrategy {
+
+    private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int cpuWorkers;
+    private final int queueCapacity;
+    private final boolean enableDiagnostics;
+
+    public PipelineStrategy() {
+        this(Runtime.getRuntime().availableProcessors(), 1024, false); // default: one CPU worker per core
+    }
+
+    public PipelineStrategy(int cpuWorkers, int queueCapacity, boolean enableDiagnostics) {
+        this.cpuWorkers = cpuWorkers;
+        this.queueCapacity = queueCapacity;
+        this.enableDiagnostics = enableDiagnostics;
+    }
+
+    private record StageItem(int taskId, long enqueuedAt, long startedAt) {
+    }
+
+    /** A CPU worker's ring buffer, plus the flag a hand-off checks to decide whether to unpark it. */
+    private static class CpuQueue {
+        final MpscRingBuffer<StageItem> items;
+        final AtomicBoolean idle = new AtomicBoolean();
+        Thread worker;
+
+        CpuQueue(int capacity) {
+            this.items = new MpscRingBuffer<>(capacity);
+        }
+
+        boolean offer(StageItem item) {
+            if (!items.offer(item)) {
+                return false;
+            }
+            VarHandle.fullFence(); // publish the item before reading idle; pairs with the fence in take()
+            if (idle.get()) {
+                LockSupport.unpark(worker);
+            }
+            return true;
+        }
+
+        // Returns null only once the worker has been interrupted
+        StageItem take() {
+            while (!Thread.currentThread().isInterrupted()) {
+                StageItem item = items.poll();
+                if (item != null) {
+                    return item;
+                }
+                idle.set(true);
+                VarHandle.fullFence();
+                item = items.poll(); // re-check so a hand-off that missed the flag is not lost
+                if (item == null) {
+                    LockSupport.park(this);
+                }
+                idle.set(false);
+                if (item != null) {
+                    return item;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        Runnable ioStage = ioStage(taskType);
+        Runnable cpuStage = cpuStage(taskType);
+
+        CpuQueue[] queues = new CpuQueue[cpuStage != null ? cpuWorkers : 0];
+        for (int w = 0; w < queues.length; w++) {
+            queues[w] = new CpuQueue(queueCapacity);
+        }
+
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+        LongAccumulator lastIoEnd = new LongAccumulator(Long::max, Long.MIN_VALUE);
+        LongAccumulator firstCpuStart = new LongAccumulator(Long::min, Long.MAX_VALUE);
+        LongAccumulator lastCpuEnd = new LongAccumulator(Long::max, Long.MIN_VALUE);
+        LongAdder handoffBlockedNanos = new LongAdder();
+        LongAdder occupancySum = new LongAdder();
+        LongAccumulator peakOccupancy = new LongAccumulator(Long::max, 0);
+        LongAdder ioCompleted = new LongAdder();
+        LongAdder cpuCompleted = new LongAdder();
+
+        // CPU stage: one platform worker per ring buffer
+        for (int w = 0; w < queues.length; w++) {
+            CpuQueue queue = queues[w];
+            queue.worker = Thread.ofPlatform().name("pipeline-cpu-" + w).unstarted(MemoryMonitor.tracked(() -> {
+                StageItem item;
+                while ((item = queue.take()) != null) {
+                    long cpuStart = System.nanoTime();
+                    firstCpuStart.accumulate(cpuStart);
+                    try {
+                        cpuStage.run();
+                        cpuCompleted.increment();
+                        completion.succeeded();
+                    } catch (Exception e) {
+                        System.err.println("CPU stage failed: " + e.getMessage());
+                    } finally {
+                        long cpuEnd = System.nanoTime();
+                        lastCpuEnd.accumulate(cpuEnd);
+                        latency.record(item.enqueuedAt(), item.startedAt(), cpuEnd);
+                        diagnostics.record(item.taskId(), item.enqueuedAt(), item.startedAt(), cpuEnd);
+                        completion.finished();
+                    }
+                }
+            }));
+            queue.worker.start();
+        }
+
+        ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        Instant start = Instant.now();
+        long startNanos = System.nanoTime();
+
+        for (int i = 0; i < taskCount; i++) {
+            long enqueuedAt = arrivals.next(i);
+            int taskId = i;
+            ioExecutor.submit(() -> {
+                long startedAt = System.nanoTime();
+                latency.started();
+
+                try {
+                    ioStage.run();
+                    ioCompleted.increment();
+                } catch (Exception e) {
+                    // A failed IO stage never reaches the CPU stage
+                    System.err.println("IO stage failed: " + e.getMessage());
+                    long endedAt = System.nanoTime();
+                    latency.record(enqueuedAt, startedAt, endedAt);
+                    diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                    completion.finished();
+                    return;
+                }
+                long ioEnd = System.nanoTime();
+                lastIoEnd.accumulate(ioEnd);
+
+                if (queues.length == 0) {
+                    // No CPU stage: the task is complete once its IO is
+                    completion.succeeded();
+                    latency.record(enqueuedAt, startedAt, ioEnd);
+                    diagnostics.record(taskId, enqueuedAt, startedAt, ioEnd);
+                    completion.finished();
+                    return;
+                }
+
+                StageItem item = new StageItem(taskId, enqueuedAt, startedAt);
+                CpuQueue target = handOff(queues, taskId, item);
+                if (target == null) {
+                    long blockedAt = System.nanoTime();
+                    do {
+                        LockSupport.parkNanos(BACKOFF_NANOS);
+                    } while ((target = handOff(queues, taskId, item)) == null);
+                    handoffBlockedNanos.add(System.nanoTime() - blockedAt);
+                }
+                int occupancy = target.items.size();
+                occupancySum.add(occupancy);
+                peakOccupancy.accumulate(occupancy);
+            });
+        }
+
+        if (!completion.await(10, TimeUnit.MINUTES)) {
+            System.err.println("⚠️ Timeout: Pipeline did not drain in time.");
+        }
+        Instant end = Instant.now();
+
+        ioExecutor.shutdown();
+        for (CpuQueue queue : queues) {
+            queue.worker.interrupt();
+            queue.worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        Metrics metrics = Metrics.calculate("Pipeline", taskType, start, end, taskCount, completion.succeededCount(), latency);
+        metrics.details.put("IO Stage", String.format("%d tasks, %.0f tasks/sec",
+                ioCompleted.intValue(), rate(ioCompleted.intValue(), startNanos, lastIoEnd.get())));
+        if (queues.length == 0) {
+            metrics.details.put("CPU Stage", "none for " + taskType);
+        } else {
+            metrics.details.put("CPU Stage", String.format("%d tasks, %.0f tasks/sec on %d workers",
+                    cpuCompleted.intValue(), rate(cpuCompleted.intValue(), firstCpuStart.get(), lastCpuEnd.get()), queues.length));
+            metrics.details.put("Queue Occupancy", String.format("avg %.1f, peak %d of %d per worker",
+                    ioCompleted.intValue() > 0 ? occupancySum.doubleValue() / ioCompleted.intValue() : 0.0,
+                    peakOccupancy.get(), queues[0].items.capacity()));
+            metrics.details.put("Handoff Blocked", TimeUnit.NANOSECONDS.toMillis(handoffBlockedNanos.sum()) + " ms (summed over IO stages)");
+        }
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    // Round-robin target first, then any other buffer with room; null when all are full
+    private static CpuQueue handOff(CpuQueue[] queues, int first, StageItem item) {
+        for (int k = 0; k < queues.length; k++) {
+            CpuQueue queue = queues[(first + k) % queues.length];
+            if (queue.offer(item)) {
+                return queue;
+            }
+        }
+        return null;
+    }
+
+    private static double rate(int tasks, long fromNanos, long toNanos) {
+        return toNanos > fromNanos ? tasks / ((toNanos - fromNanos) / 1e9) : 0.0;
+    }
+
+    // MIXED is split into its blocking and compute halves; other task types use a single stage
+    private static Runnable ioStage(String taskType) {
+        if (NetworkWorkload.isNetworkTask(taskType)) {
+            return () -> TaskSimulator.run(taskType);
+        }
+        return switch (taskType.toUpperCase()) {
+            case "MIXED", "IO" -> TaskSimulator::simulateIO;
+            default -> () -> { };
+        };
+    }
+
+    // null when the task type has no CPU part
+    private static Runnable cpuStage(String taskType) {
+        if (NetworkWorkload.isNetworkTask(taskType)) {
+            return null;
+        }
+        return switch (taskType.toUpperCase()) {
+            case "MIXED" -> TaskSimulator::simulateMixedCompute;
+            case "IO" -> null;
+            default -> () -> TaskSimulator.run(taskType);
+        };
+    }
+}
@@ -1,12 +1,15 @@
 package strategies;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
+import main.ArrivalSchedule;
 import main.Metrics;
 import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+import utils.MemoryMonitor;
 
 public class PlatformStrategy implements BenchmarkStrategy {
 
@@ -23,38 +26,37 @@ public class PlatformStrategy implements BenchmarkStrategy {
     }
 
     @Override
-    public Metrics execute(String taskType, int taskCount) throws InterruptedException {
-        ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize);
-        CountDownLatch latch = new CountDownLatch(taskCount);
-        AtomicInteger completedTasks = new AtomicInteger(0);
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize, MemoryMonitor.trackingFactory(Executors.defaultThreadFactory()));
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
 
         Instant start = Instant.now();
 
         for (int i = 0; i < taskCount; i++) {
+            long enqueuedAt = arrivals.next(i);
+            int taskId = i;
             executor.submit(() -> {
-                Instant taskStart = null;
-                if (enableDiagnostics) {
-                    taskStart = Instant.now();
-                }
+                long startedAt = System.nanoTime();
+                latency.started();
 
                 try {
                     TaskSimulator.run(taskType);
-                    completedTasks.incrementAndGet();
+                    completion.succeeded();
                 } catch (Exception e) {
                     System.err.println("Task failed: " + e.getMessage());
                     e.printStackTrace();
                 } finally {
-                    if (enableDiagnostics && taskStart != null) {
-                        Instant taskEnd = Instant.now();
-                        long duration = Duration.between(taskStart, taskEnd).toMillis();
-                        System.out.println("🧪 Task duration: " + duration + " ms");
-                    }
-                    latch.countDown();
+                    long endedAt = System.nanoTime();
+                    latency.record(enqueuedAt, startedAt, endedAt);
+                    diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                    completion.finished();
                 }
             });
         }
 
-        boolean completed = latch.await(10, TimeUnit.MINUTES);
+        boolean completed = completion.await(10, TimeUnit.MINUTES);
         Instant end = Instant.now();
 
         if (!completed) {
@@ -66,6 +68,8 @@ public class PlatformStrategy implements BenchmarkStrategy {
             System.err.println("⚠️ Executor did not shut down properly.");
         }
 
-        return Metrics.calculate("Platform", taskType, start, end, taskCount, completedTasks.get());
+        Metrics metrics = Metrics.calculate("Platform", taskType, start, end, taskCount, completion.succeededCount(), latency);
+        diagnostics.attach(metrics);
+        return metrics;
     }
 }
\ No newline at end of file
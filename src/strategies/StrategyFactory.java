@@ -0,0 +1,63 @@
+package strategies;
+
+import java.time.Duration;
+import java.util.List;
+
+import main.DagWorkload;
+
+/**
+ * Creates strategies by name for scripted runs (matrix runner, JMH).
+ * A pool or batch size of 0 keeps the strategy's default. StructuredDeadline reads its
+ * run deadline from {@code structured.deadlineMs} (default 60000); the Flow strategies read their
+ * publisher buffer size from {@code flow.bufferSize} (default 256) and use the batch size as demand;
+ * the DAG strategies take their request shape from the {@code dag.*} properties (see {@link main.DagWorkload});
+ * Partitioned uses the pool size as its partition count and {@code partitioned.workers} (default 1) workers per partition.
+ */
+public class StrategyFactory {
+
+    public static final List<String> NAMES = List.of(
+            "Platform", "Virtual", "ForkJoin", "ForkJoinRanges", "StructuredScoped", "StructuredDeadline", "StructuredHedged",
+            "StructuredBatching", "StructuredWindow",
+            "Adaptive", "Pipeline", "Partitioned", "Flow", "FlowPool",
+            "DagVirtual", "DagForkJoin", "DagStructured", "DagFuture");
+
+    public static boolean usesPoolSize(String name) {
+        return List.of("Platform", "ForkJoin", "ForkJoinRanges", "Pipeline", "Partitioned", "FlowPool", "DagForkJoin").contains(name);
+    }
+
+    public static boolean usesBatchSize(String name) {
+        return List.of("StructuredBatching", "StructuredWindow", "Pipeline", "Flow", "FlowPool").contains(name);
+    }
+
+    public static BenchmarkStrategy create(String name) {
+        return create(name, 0, 0);
+    }
+
+    public static BenchmarkStrategy create(String name, int poolSize, int batchSize) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return switch (name) {
+            case "Platform" -> poolSize > 0 ? new PlatformStrategy(poolSize, false) : new PlatformStrategy();
+            case "Virtual" -> new VirtualStrategy();
+            case "ForkJoin" -> new ForkJoinStrategy(poolSize > 0 ? poolSize : cores, false);
+            case "ForkJoinRanges" -> new ForkJoinStrategy(poolSize > 0 ? poolSize : cores, false, true);
+            case "StructuredScoped" -> new StructuredScopedStrategy();
+            case "StructuredDeadline" -> new StructuredScopedStrategy(false, StructuredScopedStrategy.Mode.DEADLINE,
+                    Duration.ofMillis(Long.getLong("structured.deadlineMs", 60_000)));
+            case "StructuredHedged" -> new StructuredScopedStrategy(false, StructuredScopedStrategy.Mode.HEDGED, Duration.ofMinutes(5));
+            case "StructuredBatching" -> batchSize > 0 ? new StructuredBatchingStrategy(batchSize, false) : new StructuredBatchingStrategy();
+            case "StructuredWindow" -> new StructuredBatchingStrategy(batchSize > 0 ? batchSize : 1000, false, true);
+            case "Adaptive" -> new AdaptiveStrategy();
+            case "Pipeline" -> poolSize > 0 || batchSize > 0
+                    ? new PipelineStrategy(poolSize > 0 ? poolSize : cores, batchSize > 0 ? batchSize : 1024, false)
+                    : new PipelineStrategy();
+            case "Partitioned" -> poolSize > 0 ? new PartitionedStrategy(poolSize, PartitionedStrategy.DEFAULT_WORKERS, false) : new PartitionedStrategy();
+            case "Flow" -> new FlowStrategy(batchSize > 0 ? batchSize : 64, FlowStrategy.DEFAULT_BUFFER_SIZE, 0, false);
+            case "FlowPool" -> new FlowStrategy(batchSize > 0 ? batchSize : 64, FlowStrategy.DEFAULT_BUFFER_SIZE, poolSize > 0 ? poolSize : cores, false);
+            case "DagVirtual" -> new DagStrategy(DagStrategy.Mode.VIRTUAL);
+            case "DagForkJoin" -> new DagStrategy(DagStrategy.Mode.FORKJOIN, DagWorkload.fromProperties(), poolSize > 0 ? poolSize : cores, false);
+            case "DagStructured" -> new DagStrategy(DagStrategy.Mode.STRUCTURED);
+            case "DagFuture" -> new DagStrategy(DagStrategy.Mode.FUTURE);
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+    }
+}
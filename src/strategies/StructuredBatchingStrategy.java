@@ -1,75 +1,249 @@
 package strategies;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.CountDownLatch;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.StructuredTaskScope;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+import main.ArrivalSchedule;
 import main.Metrics;
 import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
+import utils.MemoryMonitor;
 
+/**
+ * Runs tasks inside structured scopes, at most {@code batchSize} at a time.
+ *
+ * Batch mode opens one scope per batch and waits for the whole batch before starting the
+ * next. Sliding-window mode keeps one scope open for the whole run and starts a new task as
+ * soon as any task finishes, gated by a semaphore with {@code batchSize} permits. Both modes
+ * report how full the window was over the run.
+ */
 public class StructuredBatchingStrategy implements BenchmarkStrategy {
 
+    private static final int TIMELINE_BUCKETS = 10;
+
     private final int batchSize;
     private final boolean enableDiagnostics;
+    private final boolean slidingWindow;
 
     public StructuredBatchingStrategy() {
         this(1000, false);  // default values
     }
 
     public StructuredBatchingStrategy(int batchSize, boolean enableDiagnostics) {
+        this(batchSize, enableDiagnostics, false);
+    }
+
+    public StructuredBatchingStrategy(int batchSize, boolean enableDiagnostics, boolean slidingWindow) {
         this.batchSize = batchSize;
         this.enableDiagnostics = enableDiagnostics;
+        this.slidingWindow = slidingWindow;
     }
 
     @SuppressWarnings("preview")
     @Override
-    public Metrics execute(String taskType, int taskCount) throws InterruptedException {
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
         Instant start = Instant.now();
-        AtomicInteger completedTasks = new AtomicInteger(0); // Track how many tasks completed
+        CompletionTracker completion = new CompletionTracker(taskCount); // Tracks how many tasks completed
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+        WindowSampler window = new WindowSampler(batchSize);
 
+        long timedOut;
+        Instant end;
+        try {
+            timedOut = slidingWindow
+                    ? runSlidingWindow(taskType, taskCount, arrivals, completion, latency, diagnostics, window)
+                    : runBatches(taskType, taskCount, arrivals, completion, latency, diagnostics, window);
+            end = Instant.now();
+        } finally {
+            window.stop(); // the sampler thread must not outlive a failed run
+        }
+        Metrics metrics = Metrics.calculate(slidingWindow ? "StructuredWindow" : "StructuredBatching", taskType, start, end,
+                taskCount, completion.succeededCount(), latency);
+        metrics.timedOutTasks = timedOut;
+        window.publish(metrics);
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    @SuppressWarnings("preview")
+    private long runBatches(String taskType, int taskCount, ArrivalSchedule arrivals, CompletionTracker completion,
+                            LatencyRecorder latency, DiagnosticsRecorder diagnostics, WindowSampler window) throws InterruptedException {
+        long timedOut = 0;
         for (int batchStart = 0; batchStart < taskCount; batchStart += batchSize) {
             int currentBatchSize = Math.min(batchSize, taskCount - batchStart);
-            CountDownLatch latch = new CountDownLatch(currentBatchSize);
 
             try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
                 for (int i = 0; i < currentBatchSize; i++) {
+                    long enqueuedAt = arrivals.next(batchStart + i);
+                    int taskId = batchStart + i;
+                    window.inFlight.incrementAndGet();
                     scope.fork(() -> {
-                        Instant taskStart = null;
-                        if (enableDiagnostics) {
-                            taskStart = Instant.now();
-                        }
+                        long startedAt = System.nanoTime();
+                        latency.started();
 
                         try {
                             TaskSimulator.run(taskType);
-                            completedTasks.incrementAndGet();
+                            completion.succeeded();
                         } catch (Exception e) {
                             System.err.println("Task failed: " + e.getMessage());
                         } finally {
-                            if (enableDiagnostics && taskStart != null) {
-                                Instant taskEnd = Instant.now();
-                                long duration = Duration.between(taskStart, taskEnd).toMillis();
-                                System.out.println("🧪 Task duration: " + duration + " ms");
-                            }
-                            latch.countDown();
+                            long endedAt = System.nanoTime();
+                            latency.record(enqueuedAt, startedAt, endedAt);
+                            diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                            window.inFlight.decrementAndGet();
+                            completion.finished();
                         }
                         return null;
                     });
                 }
 
-                // Safety: wait max 5 minutes for each batch
-                boolean completed = latch.await(5, TimeUnit.MINUTES);
-                if (!completed) {
+                // Safety: wait max 5 minutes for each batch, then cancel what is left
+                try {
+                    scope.joinUntil(Instant.now().plus(5, ChronoUnit.MINUTES));
+                } catch (TimeoutException e) {
+                    timedOut += batchStart + currentBatchSize - completion.finishedCount();
+                    scope.shutdown();
                     System.err.println("⚠️ Timeout: Batch did not complete in time.");
                 }
+            }
+        }
+        return timedOut;
+    }
+
+    @SuppressWarnings("preview")
+    private long runSlidingWindow(String taskType, int taskCount, ArrivalSchedule arrivals, CompletionTracker completion,
+                                  LatencyRecorder latency, DiagnosticsRecorder diagnostics, WindowSampler window) throws InterruptedException {
+        Semaphore permits = new Semaphore(batchSize);
+
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (int i = 0; i < taskCount; i++) {
+                long enqueuedAt = arrivals.next(i);
+                int taskId = i;
+                // Same safety limit as a batch: give up if no slot frees up within 5 minutes
+                if (!permits.tryAcquire(5, TimeUnit.MINUTES)) {
+                    System.err.println("⚠️ Timeout: No window slot freed up in time.");
+                    scope.shutdown();
+                    break;
+                }
+                if (scope.isShutdown()) {
+                    permits.release();
+                    break;
+                }
+                window.inFlight.incrementAndGet();
+                scope.fork(() -> {
+                    long startedAt = System.nanoTime();
+                    latency.started();
+
+                    try {
+                        TaskSimulator.run(taskType);
+                        completion.succeeded();
+                    } catch (Exception e) {
+                        System.err.println("Task failed: " + e.getMessage());
+                    } finally {
+                        long endedAt = System.nanoTime();
+                        latency.record(enqueuedAt, startedAt, endedAt);
+                        diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                        window.inFlight.decrementAndGet();
+                        permits.release();
+                        completion.finished();
+                    }
+                    return null;
+                });
+            }
 
-                scope.join(); // Wait for all tasks
+            try {
+                scope.joinUntil(Instant.now().plus(10, ChronoUnit.MINUTES));
+            } catch (TimeoutException e) {
+                scope.shutdown();
+                System.err.println("⚠️ Timeout: Window did not drain in time.");
             }
+            return completion.remaining(); // tasks cut off by a timeout, forked or not
         }
+    }
+
+    /**
+     * Samples the number of in-flight tasks every 10ms so the report can show how much of the
+     * window was actually used, overall and across the run.
+     */
+    private static class WindowSampler {
+        private static final long SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
 
-        Instant end = Instant.now();
-        return Metrics.calculate("StructuredBatching", taskType, start, end, taskCount, completedTasks.get());
+        final AtomicInteger inFlight = new AtomicInteger();
+        private final int windowSize;
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder sampledInFlight = new LongAdder();
+        private final double[] timeline = new double[1024];
+        private final Thread sampler;
+        private volatile boolean running = true;
+        private int timelineLength;
+        private int stride = 1; // samples averaged into each timeline slot
+
+        WindowSampler(int windowSize) {
+            this.windowSize = windowSize;
+            this.sampler = MemoryMonitor.harnessThread(Thread.ofPlatform().daemon().name("window-sampler").start(this::sampleLoop));
+        }
+
+        private void sampleLoop() {
+            long pendingSum = 0;
+            int pending = 0;
+            while (running) {
+                int current = inFlight.get();
+                samples.increment();
+                sampledInFlight.add(current);
+                pendingSum += current;
+                if (++pending == stride) {
+                    if (timelineLength == timeline.length) {
+                        // Halve the resolution instead of growing without bound
+                        for (int i = 0; i < timeline.length / 2; i++) {
+                            timeline[i] = (timeline[2 * i] + timeline[2 * i + 1]) / 2;
+                        }
+                        timelineLength = timeline.length / 2;
+                        stride *= 2;
+                    } else {
+                        timeline[timelineLength++] = (double) pendingSum / pending;
+                        pendingSum = 0;
+                        pending = 0;
+                    }
+                }
+                LockSupport.parkNanos(SAMPLE_NANOS);
+            }
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            LockSupport.unpark(sampler);
+            sampler.join();
+        }
+
+        void publish(Metrics metrics) {
+            long count = samples.sum();
+            double average = count > 0 ? (double) sampledInFlight.sum() / count : 0;
+            metrics.details.put("Window", String.format("%d slots, avg %.1f in flight (%.1f%% utilized)",
+                    windowSize, average, 100.0 * average / windowSize));
+
+            // Utilization per tenth of the run, so stragglers at batch ends show up as dips
+            StringBuilder buckets = new StringBuilder();
+            int bucketCount = Math.min(TIMELINE_BUCKETS, timelineLength);
+            for (int b = 0; b < bucketCount; b++) {
+                int from = b * timelineLength / bucketCount;
+                int to = (b + 1) * timelineLength / bucketCount;
+                double sum = 0;
+                for (int i = from; i < to; i++) {
+                    sum += timeline[i];
+                }
+                buckets.append(b > 0 ? " " : "").append(String.format("%.0f%%", 100.0 * sum / Math.max(1, to - from) / windowSize));
+            }
+            metrics.details.put("Window Timeline", buckets);
+        }
     }
 }
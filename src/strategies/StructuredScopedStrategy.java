@@ -2,53 +2,97 @@ package strategies;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Subtask;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+import main.ArrivalSchedule;
 import main.Metrics;
 import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyHistogram;
+import utils.LatencyRecorder;
 
+/**
+ * Runs every task as a fork of one structured scope.
+ *
+ * <ul>
+ * <li>STANDARD: failures are logged per task; the scope is joined once all tasks are done.</li>
+ * <li>DEADLINE: task failures propagate, so the first one shuts the scope down and cancels
+ * the rest; the scope is joined with {@code joinUntil(start + deadline)} and shut down when
+ * the deadline passes.</li>
+ * <li>HEDGED: each task runs in its own {@code ShutdownOnSuccess} scope. If the first attempt
+ * is still running after the p95 service time seen so far, a duplicate attempt is forked and
+ * whichever finishes first wins; the other is cancelled. A task's service time ends when its
+ * winning attempt does. The run is joined with {@code joinUntil(start + deadline)} as in DEADLINE.</li>
+ * </ul>
+ */
 public class StructuredScopedStrategy implements BenchmarkStrategy {
 
+    public enum Mode { STANDARD, DEADLINE, HEDGED }
+
+    private static final int HEDGE_MIN_SAMPLES = 50;   // no hedging until p95 means something
+    private static final int HEDGE_REFRESH_EVERY = 64; // completed attempts between p95 updates
+
     private final boolean enableDiagnostics;
+    private final Mode mode;
+    private final Duration deadline;
 
     public StructuredScopedStrategy() {
         this(false); // default: diagnostics disabled
     }
 
     public StructuredScopedStrategy(boolean enableDiagnostics) {
+        this(enableDiagnostics, Mode.STANDARD, Duration.ofMinutes(5));
+    }
+
+    public StructuredScopedStrategy(boolean enableDiagnostics, Mode mode, Duration deadline) {
         this.enableDiagnostics = enableDiagnostics;
+        this.mode = mode;
+        this.deadline = deadline;
     }
 
-    @SuppressWarnings("preview")
     @Override
-    public Metrics execute(String taskType, int taskCount) throws InterruptedException {
-        CountDownLatch latch = new CountDownLatch(taskCount);
-        AtomicInteger completedTasks = new AtomicInteger(0);
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        return switch (mode) {
+            case STANDARD -> executeStandard(taskType, taskCount, arrivals);
+            case DEADLINE -> executeWithDeadline(taskType, taskCount, arrivals);
+            case HEDGED -> executeHedged(taskType, taskCount, arrivals);
+        };
+    }
+
+    @SuppressWarnings("preview")
+    private Metrics executeStandard(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
         Instant start = Instant.now();
 
         try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
             for (int i = 0; i < taskCount; i++) {
+                long enqueuedAt = arrivals.next(i);
+                int taskId = i;
                 scope.fork(() -> {
-                    Instant taskStart = null;
-                    if (enableDiagnostics) {
-                        taskStart = Instant.now();
-                    }
+                    long startedAt = System.nanoTime();
+                    latency.started();
 
                     try {
                         TaskSimulator.run(taskType);
-                        completedTasks.incrementAndGet();
+                        completion.succeeded();
                     } catch (Exception e) {
                         System.err.println("Task failed: " + e.getMessage());
                     } finally {
-                        if (enableDiagnostics && taskStart != null) {
-                            Instant taskEnd = Instant.now();
-                            long duration = Duration.between(taskStart, taskEnd).toMillis();
-                            System.out.println("🧪 Task duration: " + duration + " ms");
-                        }
-                        latch.countDown();
+                        long endedAt = System.nanoTime();
+                        latency.record(enqueuedAt, startedAt, endedAt);
+                        diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                        completion.finished();
                     }
 
                     return null;
@@ -56,7 +100,7 @@ public class StructuredScopedStrategy implements BenchmarkStrategy {
             }
 
             // Wait up to 5 minutes for all tasks to finish
-            boolean completed = latch.await(5, TimeUnit.MINUTES);
+            boolean completed = completion.await(5, TimeUnit.MINUTES);
             if (!completed) {
                 System.err.println("⚠️ Timeout: Not all structured tasks completed.");
             }
@@ -65,6 +109,223 @@ public class StructuredScopedStrategy implements BenchmarkStrategy {
         }
 
         Instant end = Instant.now();
-        return Metrics.calculate("StructuredScoped", taskType, start, end, taskCount, completedTasks.get());
+        Metrics metrics = Metrics.calculate("StructuredScoped", taskType, start, end, taskCount, completion.succeededCount(), latency);
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    @SuppressWarnings("preview")
+    private Metrics executeWithDeadline(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+        List<Subtask<Void>> subtasks = new ArrayList<>(taskCount);
+        Instant start = Instant.now();
+        Instant runDeadline = start.plus(deadline);
+        boolean timedOut = false;
+
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (int i = 0; i < taskCount && !scope.isShutdown() && Instant.now().isBefore(runDeadline); i++) {
+                long enqueuedAt = arrivals.next(i);
+                int taskId = i;
+                subtasks.add(scope.fork(() -> {
+                    long startedAt = System.nanoTime();
+                    latency.started();
+                    boolean cancelled = false;
+
+                    try {
+                        TaskSimulator.run(taskType);
+                        // The simulators swallow interrupts; surface them so a cancelled task doesn't count as done
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedException("cancelled");
+                        }
+                        completion.succeeded();
+                    } catch (InterruptedException e) {
+                        cancelled = true;
+                        throw e;
+                    } finally {
+                        // A cancelled fork only ran part of its work, so it stays out of the service times
+                        if (cancelled || Thread.currentThread().isInterrupted()) {
+                            latency.abandoned();
+                        } else {
+                            long endedAt = System.nanoTime();
+                            latency.record(enqueuedAt, startedAt, endedAt);
+                            diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            try {
+                scope.joinUntil(runDeadline);
+                scope.throwIfFailed();
+            } catch (TimeoutException e) {
+                timedOut = true;
+                scope.shutdown(); // interrupts every fork that is still running
+                System.err.println("⚠️ Deadline of " + deadline.toMillis() + " ms reached, remaining tasks cancelled.");
+            } catch (ExecutionException e) {
+                System.err.println("⚠️ Task failed, remaining tasks cancelled: " + e.getCause());
+            }
+        }
+
+        Instant end = Instant.now();
+        Metrics metrics = Metrics.calculate("StructuredDeadline", taskType, start, end, taskCount, completion.succeededCount(), latency);
+
+        // Forks that never finished, plus tasks that were never forked, were cut off either by
+        // the deadline or by a failing sibling
+        long unfinished = taskCount - subtasks.size();
+        long failed = 0;
+        for (Subtask<Void> subtask : subtasks) {
+            switch (subtask.state()) {
+                case UNAVAILABLE -> unfinished++;
+                case FAILED -> failed++;
+                case SUCCESS -> { }
+            }
+        }
+        if (timedOut) {
+            metrics.timedOutTasks = unfinished;
+        } else {
+            metrics.cancelledTasks = unfinished;
+        }
+        metrics.details.put("Deadline", deadline.toMillis() + " ms, " + failed + " failed");
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    @SuppressWarnings("preview")
+    private Metrics executeHedged(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
+        CompletionTracker completion = new CompletionTracker(taskCount);
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
+        HedgePolicy hedging = new HedgePolicy();
+        Instant start = Instant.now();
+        long unfinished = 0;
+
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (int i = 0; i < taskCount; i++) {
+                long enqueuedAt = arrivals.next(i);
+                int taskId = i;
+                scope.fork(() -> {
+                    long startedAt = System.nanoTime();
+                    latency.started();
+
+                    try {
+                        // Ends when the winning attempt does; closing the scope still waits for the loser
+                        long endedAt = runHedged(taskType, hedging);
+                        latency.record(enqueuedAt, startedAt, endedAt);
+                        diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                        completion.succeeded();
+                    } catch (InterruptedException e) {
+                        latency.abandoned(); // cut off by the run deadline
+                    } catch (Exception e) {
+                        long endedAt = System.nanoTime();
+                        latency.record(enqueuedAt, startedAt, endedAt);
+                        diagnostics.record(taskId, enqueuedAt, startedAt, endedAt);
+                        System.err.println("Task failed: " + e.getMessage());
+                    } finally {
+                        completion.finished();
+                    }
+                    return null;
+                });
+            }
+
+            try {
+                scope.joinUntil(start.plus(deadline));
+            } catch (TimeoutException e) {
+                unfinished = completion.remaining();
+                scope.shutdown(); // interrupts every task still waiting on an attempt
+                System.err.println("⚠️ Deadline of " + deadline.toMillis() + " ms reached, " + unfinished + " hedged tasks cancelled.");
+            }
+        }
+
+        Instant end = Instant.now();
+        Metrics metrics = Metrics.calculate("StructuredHedged", taskType, start, end, taskCount, completion.succeededCount(), latency);
+        metrics.hedgesLaunched = hedging.launched.sum();
+        metrics.hedgedWins = hedging.wins.sum();
+        metrics.cancelledTasks = hedging.cancelledAttempts.sum();
+        metrics.timedOutTasks = unfinished;
+        metrics.details.put("Hedging", String.format("%.1f%% of tasks hedged, %d ms of attempt work (%.1f%% spent on losers)",
+                100.0 * metrics.hedgesLaunched / Math.max(1, taskCount),
+                TimeUnit.NANOSECONDS.toMillis(hedging.attemptNanos.sum()),
+                100.0 * hedging.loserNanos.sum() / Math.max(1, hedging.attemptNanos.sum())));
+        diagnostics.attach(metrics);
+        return metrics;
+    }
+
+    // Primary attempt first; a hedge only once it has been running longer than the current p95.
+    // Returns the time the winning attempt finished.
+    @SuppressWarnings("preview")
+    private static long runHedged(String taskType, HedgePolicy hedging) throws InterruptedException, ExecutionException {
+        try (var attempts = new StructuredTaskScope.ShutdownOnSuccess<Attempt>()) {
+            attempts.fork(() -> hedging.attempt(taskType, 0));
+            long delay = hedging.delayNanos();
+            boolean hedged = false;
+            if (delay > 0) {
+                try {
+                    attempts.joinUntil(Instant.now().plusNanos(delay));
+                } catch (TimeoutException e) {
+                    attempts.fork(() -> hedging.attempt(taskType, 1));
+                    hedging.launched.increment();
+                    hedged = true;
+                }
+            }
+            attempts.join();
+            Attempt winner = attempts.result();
+            if (winner.index() == 1) {
+                hedging.wins.increment();
+            }
+            if (hedged) {
+                hedging.cancelledAttempts.increment(); // the slower attempt is interrupted on close
+            }
+            return winner.endedAt();
+        }
+    }
+
+    private record Attempt(int index, long endedAt) {
+    }
+
+    /** Tracks attempt service times and derives the hedge delay from their p95. */
+    private static class HedgePolicy {
+        final LatencyHistogram attempts = new LatencyHistogram();
+        final AtomicLong completedAttempts = new AtomicLong();
+        final LongAdder launched = new LongAdder();
+        final LongAdder wins = new LongAdder();
+        final LongAdder cancelledAttempts = new LongAdder();
+        final LongAdder attemptNanos = new LongAdder();
+        final LongAdder loserNanos = new LongAdder();
+        private volatile long p95Nanos;
+
+        Attempt attempt(String taskType, int attempt) throws InterruptedException {
+            long startedAt = System.nanoTime();
+            long endedAt;
+            boolean finished = false;
+            try {
+                TaskSimulator.run(taskType);
+                finished = !Thread.currentThread().isInterrupted();
+            } finally {
+                endedAt = System.nanoTime();
+                long elapsed = endedAt - startedAt;
+                attemptNanos.add(elapsed);
+                if (finished) {
+                    attempts.record(elapsed);
+                    long completed = completedAttempts.incrementAndGet();
+                    if (completed == HEDGE_MIN_SAMPLES || completed % HEDGE_REFRESH_EVERY == 0) {
+                        p95Nanos = attempts.snapshot().valueAtPercentile(95);
+                    }
+                } else {
+                    loserNanos.add(elapsed);
+                }
+            }
+            if (!finished) {
+                throw new InterruptedException("attempt cancelled");
+            }
+            return new Attempt(attempt, endedAt);
+        }
+
+        // 0 until enough attempts have completed: no hedging yet
+        long delayNanos() {
+            return p95Nanos;
+        }
     }
 }
@@ -1,14 +1,17 @@
 package strategies;
 
 import java.time.Instant;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import main.ArrivalSchedule;
 import main.Metrics;
 import main.TaskSimulator;
+import utils.CompletionTracker;
+import utils.DiagnosticsRecorder;
+import utils.LatencyRecorder;
 
 public class VirtualStrategy implements BenchmarkStrategy {
 
@@ -23,52 +26,47 @@ public class VirtualStrategy implements BenchmarkStrategy {
     }
 
     @Override
-    public Metrics execute(String taskType, int taskCount) throws InterruptedException {
+    public Metrics execute(String taskType, int taskCount, ArrivalSchedule arrivals) throws InterruptedException {
         ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-        CountDownLatch latch = new CountDownLatch(taskCount);
+        CompletionTracker completion = new CompletionTracker(taskCount);
         AtomicInteger threadCounter = new AtomicInteger();
-        AtomicInteger completedTasks = new AtomicInteger();
-
-        // Optional: Warm-up run (helps JVM JIT warm up)
-        for (int i = 0; i < 100; i++) {
-            TaskSimulator.run(taskType);
-        }
+        LatencyRecorder latency = new LatencyRecorder();
+        DiagnosticsRecorder diagnostics = new DiagnosticsRecorder(enableDiagnostics, taskCount);
 
         Instant start = Instant.now();
 
         for (int i = 0; i < taskCount; i++) {
             int threadId = threadCounter.incrementAndGet();
+            long enqueuedAt = arrivals.next(i);
             executor.submit(() -> {
-                Instant taskStart = null;
-                if (enableDiagnostics) {
-                    taskStart = Instant.now();
-                }
+                long startedAt = System.nanoTime();
+                latency.started();
 
                 try {
                     Thread.currentThread().setName("VirtualThread-" + threadId);
                     TaskSimulator.run(taskType);
-                    completedTasks.incrementAndGet();
+                    completion.succeeded();
                 } catch (Exception e) {
                     System.err.println("❌ Error in task " + threadId + ": " + e.getMessage());
                 } finally {
-                    if (enableDiagnostics && taskStart != null) {
-                        Instant taskEnd = Instant.now();
-                        long duration = taskEnd.toEpochMilli() - taskStart.toEpochMilli();
-                        System.out.println("🧪 Task " + threadId + " duration: " + duration + " ms");
-                    }
-                    latch.countDown();
+                    long endedAt = System.nanoTime();
+                    latency.record(enqueuedAt, startedAt, endedAt);
+                    diagnostics.record(threadId, enqueuedAt, startedAt, endedAt);
+                    completion.finished();
                 }
             });
         }
 
         // Wait with timeout (optional safety)
-        if (!latch.await(5, TimeUnit.MINUTES)) {
+        if (!completion.await(5, TimeUnit.MINUTES)) {
             System.err.println("⛔ Benchmark timed out after 5 minutes.");
         }
 
         Instant end = Instant.now();
         executor.shutdown();
 
-        return Metrics.calculate("Virtual", taskType, start, end, taskCount, completedTasks.get());
+        Metrics metrics = Metrics.calculate("Virtual", taskType, start, end, taskCount, completion.succeededCount(), latency);
+        diagnostics.attach(metrics);
+        return metrics;
     }
 }
@@ -0,0 +1,33 @@
+package utils;
+
+/**
+ * Sink for values computed only to burn CPU, so the JIT cannot prove them unused and
+ * eliminate the work (same trick as JMH's Blackhole: a comparison against two volatile
+ * fields that can never both match).
+ */
+public class Blackhole {
+    private static volatile long longA = 1, longB = 2;
+    private static volatile double doubleA = 1.0, doubleB = 2.0;
+    private static volatile Object objectSink;
+    private static long longDump;
+    private static double doubleDump;
+
+    public static void consume(long value) {
+        if (value == longA & value == longB) {
+            longDump = value;
+        }
+    }
+
+    public static void consume(double value) {
+        if (value == doubleA & value == doubleB) {
+            doubleDump = value;
+        }
+    }
+
+    public static void consume(Object value) {
+        // Cheap enough for per-task results; objects are rarely the hot path
+        if (value == objectSink && value != null) {
+            objectSink = null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Counts finished and successful tasks of one run without a shared hot cache line, and lets
+ * the strategy wait for all of them.
+ *
+ * Counters are striped by thread id over a power-of-two number of cells, each padded to its
+ * own 128-byte block (the effect of {@code @Contended}, which application code can't use), so
+ * workers on different cores don't invalidate each other's lines.
+ *
+ * Finished tasks are flushed from their stripe into a shared countdown in batches of
+ * {@value #BATCH}, so a finishing task only reads the countdown in between. Once the countdown
+ * drops to {@code stripes x BATCH}, the task that crossed it sweeps every stripe and from then on
+ * each task flushes its own, so nothing is left behind in a stripe and the flush that reaches
+ * zero unparks the waiter: the measured run time ends with the last task.
+ */
+public class CompletionTracker {
+
+    private static final int PAD = 16;       // longs per stripe: 128 bytes, two cache lines
+    private static final int SUCCEEDED = 1;  // offset of the success count inside a stripe
+    private static final int BATCH = 64;     // finished tasks a stripe holds before flushing them
+
+    private final long expected;
+    private final AtomicLongArray cells;
+    private final int stripeMask;
+    private final AtomicLong pending;        // expected tasks not yet flushed from a stripe
+    private final long tail;                 // below this every finishing task flushes
+    private volatile boolean done;
+    private volatile Thread waiter;
+
+    public CompletionTracker(long expected) {
+        this.expected = expected;
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        this.cells = new AtomicLongArray(stripes * PAD);
+        this.stripeMask = stripes - 1;
+        this.pending = new AtomicLong(expected);
+        this.tail = (long) stripes * BATCH;
+        this.done = expected <= 0;
+    }
+
+    /** Counts one task that finished normally. Call {@link #finished()} for it as well. */
+    public void succeeded() {
+        cells.getAndIncrement(stripe() + SUCCEEDED);
+    }
+
+    /** Counts one task as done, successful or not; must be called exactly once per task. */
+    public void finished() {
+        int stripe = stripe();
+        long unflushed = cells.incrementAndGet(stripe);
+        if (unflushed >= BATCH || pending.get() <= tail) {
+            flush(stripe);
+        }
+    }
+
+    private void flush(int stripe) {
+        long count = cells.getAndSet(stripe, 0);
+        if (count == 0) {
+            return;
+        }
+        long left = pending.addAndGet(-count);
+        if (left + count > tail && left <= tail) {
+            // Stripes may still hold tasks counted before anyone saw the tail; nobody else will flush them
+            for (int i = 0; i < cells.length(); i += PAD) {
+                flush(i);
+            }
+        }
+        if (left <= 0) {
+            Thread parked = waiter;
+            if (parked != null) {
+                LockSupport.unpark(parked);
+            }
+        }
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id ^ (id >>> 16)) & stripeMask) * PAD;
+    }
+
+    /** Waits until every expected task has finished; false if the timeout elapsed first. */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        // Publish the waiter before re-checking the countdown: either the last flush sees it, or we see the last flush
+        waiter = Thread.currentThread();
+        try {
+            while (pending.get() > 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remainingNanos);
+            }
+        } finally {
+            waiter = null;
+        }
+        done = true;
+        return true;
+    }
+
+    /**
+     * True once {@link #await} has seen every task finish. Only reads a flag, so worker loops
+     * can check it per task without summing the stripes.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    public long finishedCount() {
+        // Countdown first: a stripe flushed in between is then missed, never counted twice
+        long flushed = expected - pending.get();
+        return flushed + sum(0);
+    }
+
+    public int succeededCount() {
+        return (int) sum(SUCCEEDED);
+    }
+
+    public long remaining() {
+        return Math.max(0, expected - finishedCount());
+    }
+
+    private long sum(int offset) {
+        long total = 0;
+        for (int i = offset; i < cells.length(); i += PAD) {
+            total += cells.get(i);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,118 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dynamic concurrency limit driven by observed task latency (in the spirit of Netflix's
+ * concurrency-limits).
+ *
+ * AIMD grows the limit by one while the limit is actually being used and latency stays
+ * within {@code tolerance} x the best latency seen, and multiplies it by a backoff factor
+ * when latency goes above that. GRADIENT scales the limit by the ratio of the best latency
+ * seen to a smoothed recent latency, plus a sqrt(limit) allowance for queueing, so it settles
+ * where adding concurrency only adds latency instead of throughput.
+ *
+ * Completions update the estimate lock-free: each sample computes a new immutable state from
+ * the current one and installs it with a compare-and-set, retrying if another completion won.
+ */
+public class ConcurrencyLimit {
+
+    public enum Algorithm { AIMD, GRADIENT }
+
+    private static final double AIMD_BACKOFF = 0.9;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double RECENT_WEIGHT = 0.1; // EMA weight of each new latency sample
+
+    private final Algorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicReference<State> state;
+    private final AtomicInteger peakLimit;
+
+    private record State(double estimatedLimit, double minRttNanos, double recentRttNanos) {
+        int limit() {
+            return (int) estimatedLimit;
+        }
+    }
+
+    public ConcurrencyLimit(Algorithm algorithm, int initialLimit, int minLimit, int maxLimit) {
+        this.algorithm = algorithm;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.state = new AtomicReference<>(new State(initialLimit, Double.MAX_VALUE, 0));
+        this.peakLimit = new AtomicInteger(initialLimit);
+    }
+
+    /** Takes a slot if fewer than {@link #limit()} tasks are in flight. */
+    public boolean tryAcquire() {
+        int current = inFlight.get();
+        while (current < limit()) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = inFlight.get();
+        }
+        return false;
+    }
+
+    /** Returns a slot and feeds the task's service time into the limit algorithm. */
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtCompletion);
+    }
+
+    private void onSample(long rttNanos, int inFlightAtCompletion) {
+        double rtt = Math.max(1, rttNanos);
+        State current;
+        State updated;
+        do {
+            current = state.get();
+            updated = next(current, rtt, inFlightAtCompletion);
+        } while (!state.compareAndSet(current, updated));
+        peakLimit.accumulateAndGet(updated.limit(), Math::max);
+    }
+
+    private State next(State current, double rtt, int inFlightAtCompletion) {
+        double estimatedLimit = current.estimatedLimit();
+        double minRttNanos = Math.min(current.minRttNanos(), rtt);
+        double recentRttNanos = current.recentRttNanos();
+
+        double next;
+        if (algorithm == Algorithm.AIMD) {
+            if (rtt > minRttNanos * TOLERANCE) {
+                next = estimatedLimit * AIMD_BACKOFF;
+            } else if (inFlightAtCompletion * 2 >= estimatedLimit) {
+                next = estimatedLimit + 1;
+            } else {
+                next = estimatedLimit;
+            }
+        } else {
+            recentRttNanos = recentRttNanos == 0 ? rtt : recentRttNanos + (rtt - recentRttNanos) * RECENT_WEIGHT;
+            // Don't grow while the limit isn't the bottleneck
+            if (inFlightAtCompletion < estimatedLimit / 2) {
+                return new State(estimatedLimit, minRttNanos, recentRttNanos);
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * minRttNanos / recentRttNanos));
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            next = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+        }
+
+        return new State(Math.max(minLimit, Math.min(maxLimit, next)), minRttNanos, recentRttNanos);
+    }
+
+    public int limit() {
+        return state.get().limit();
+    }
+
+    public int peakLimit() {
+        return peakLimit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,129 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import main.Metrics;
+
+/**
+ * Low-overhead per-task event recorder used when a strategy runs with diagnostics enabled.
+ *
+ * Each record is five primitive longs (task id, thread id, enqueue/start/end
+ * {@link System#nanoTime()}) written into a ring buffer per stripe of recording threads.
+ * Nothing is printed on the task path. A strategy attaches the recorder to its metrics, and
+ * {@link main.BenchmarkRunner} streams the records to the result sink once the run's monitors
+ * have stopped, so formatting them and waiting on a full sink queue are not charged to the run. A ring holds up to the run's task count (at most {@code MAX_CAPACITY}) records,
+ * because one thread may record all of them, but it is allocated lazily in blocks of
+ * {@code BLOCK} records as its cursor reaches them, so memory follows the records actually
+ * written rather than stripes x capacity. When a ring wraps, the oldest records are
+ * overwritten and counted.
+ */
+public class DiagnosticsRecorder {
+
+    private static final int FIELDS = 5;
+    private static final int MAX_CAPACITY = 1 << 16; // records per stripe
+    private static final int BLOCK = 256;            // records per lazily allocated block
+
+    private final boolean enabled;
+    private final AtomicReferenceArray<long[]> blocks; // stripe * blocksPerStripe + block
+    private final AtomicLong[] cursors;
+    private final int capacity;
+    private final int blocksPerStripe;
+    private final int stripeMask;
+
+    /** {@code expectedRecords} is normally the task count; one thread may record all of them. */
+    public DiagnosticsRecorder(boolean enabled, int expectedRecords) {
+        this.enabled = enabled;
+        int stripes = enabled ? Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1 : 0;
+        this.capacity = Math.max(1, Math.min(MAX_CAPACITY, expectedRecords));
+        this.blocksPerStripe = (capacity + BLOCK - 1) / BLOCK;
+        this.blocks = new AtomicReferenceArray<>(stripes * blocksPerStripe);
+        this.cursors = new AtomicLong[stripes];
+        for (int i = 0; i < stripes; i++) {
+            cursors[i] = new AtomicLong();
+        }
+        this.stripeMask = stripes - 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(long taskId, long enqueuedAt, long startedAt, long endedAt) {
+        if (!enabled) {
+            return;
+        }
+        long threadId = Thread.currentThread().threadId();
+        int stripe = (int) (threadId ^ (threadId >>> 16)) & stripeMask;
+        int slot = (int) (cursors[stripe].getAndIncrement() % capacity);
+
+        long[] block = block(stripe, slot / BLOCK);
+        int base = (slot % BLOCK) * FIELDS;
+        block[base] = taskId;
+        block[base + 1] = threadId;
+        block[base + 2] = enqueuedAt;
+        block[base + 3] = startedAt;
+        block[base + 4] = endedAt;
+    }
+
+    // The first thread to reach a block allocates it; the last block of a ring is only as long as needed
+    private long[] block(int stripe, int block) {
+        int index = stripe * blocksPerStripe + block;
+        long[] existing = blocks.get(index);
+        if (existing != null) {
+            return existing;
+        }
+        long[] fresh = new long[Math.min(BLOCK, capacity - block * BLOCK) * FIELDS];
+        return blocks.compareAndSet(index, null, fresh) ? fresh : blocks.get(index);
+    }
+
+    public long recorded() {
+        long total = 0;
+        for (AtomicLong cursor : cursors) {
+            total += cursor.get();
+        }
+        return total;
+    }
+
+    public long overwritten() {
+        long total = 0;
+        for (AtomicLong cursor : cursors) {
+            total += Math.max(0, cursor.get() - capacity);
+        }
+        return total;
+    }
+
+    /** Hands the records to the run's metrics for {@link #publish}; called at the end of {@code execute}. */
+    public void attach(Metrics metrics) {
+        if (enabled) {
+            metrics.diagnostics = this;
+        }
+    }
+
+    /**
+     * Streams the retained records to the result sink as CSV lines and notes the totals in the
+     * metrics. Must only be called after every recording task has finished.
+     */
+    public void publish(Metrics metrics) {
+        if (!enabled) {
+            return;
+        }
+        ResultSink sink = FileLogger.sink();
+        sink.log("diag,strategy,taskId,threadId,enqueuedNanos,startedNanos,endedNanos");
+        StringBuilder line = new StringBuilder(96);
+        for (int stripe = 0; stripe < cursors.length; stripe++) {
+            long count = Math.min(cursors[stripe].get(), capacity);
+            for (int slot = 0; slot < count; slot++) {
+                long[] block = blocks.get(stripe * blocksPerStripe + slot / BLOCK);
+                int base = (slot % BLOCK) * FIELDS;
+                line.setLength(0);
+                line.append("diag,").append(metrics.threadType);
+                for (int f = 0; f < FIELDS; f++) {
+                    line.append(',').append(block[base + f]);
+                }
+                sink.log(line.toString());
+            }
+        }
+        metrics.details.put("Diagnostics", recorded() + " task records (" + overwritten() + " overwritten) -> " + sink.path());
+    }
+}
@@ -0,0 +1,159 @@
+package utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process TCP and UDP echo server on the loopback interface.
+ *
+ * TCP messages are framed as a 4-byte length followed by the payload; the server reads a whole
+ * frame, waits for the configured response delay and writes the frame back. A connection may
+ * carry any number of frames. UDP datagrams are echoed back to their sender as they are.
+ *
+ * Every TCP connection and every delayed datagram is served by its own virtual thread, so the
+ * server side never becomes the bottleneck of a client workload.
+ */
+public class EchoServer implements AutoCloseable {
+
+    public static final int MAX_DATAGRAM = 65_507;
+
+    private final ServerSocket serverSocket;
+    private final DatagramChannel datagramChannel;
+    private final LongSupplier responseDelayNanos;
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong acceptedConnections = new AtomicLong();
+
+    public EchoServer(int port) throws IOException {
+        this(port, () -> 0);
+    }
+
+    public EchoServer(int port, LongSupplier responseDelayNanos) throws IOException {
+        this.responseDelayNanos = responseDelayNanos;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        this.datagramChannel = DatagramChannel.open();
+        this.datagramChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        // The echo server stands in for a remote peer, so its threads are not charged to the run
+        MemoryMonitor.harnessThread(Thread.ofPlatform().daemon().name("echo-acceptor").start(this::acceptLoop));
+        MemoryMonitor.harnessThread(Thread.ofPlatform().daemon().name("echo-udp").start(this::datagramLoop));
+    }
+
+    public InetSocketAddress tcpAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    public InetSocketAddress udpAddress() {
+        try {
+            return (InetSocketAddress) datagramChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("UDP echo channel is closed", e);
+        }
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long acceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                acceptedConnections.incrementAndGet();
+                handlers.submit(() -> echo(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Echo server accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void echo(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            byte[] payload = new byte[0];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return; // client closed between frames
+                }
+                if (payload.length < length) {
+                    payload = new byte[length];
+                }
+                in.readFully(payload, 0, length);
+                delay();
+                out.writeInt(length);
+                out.write(payload, 0, length);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            // Client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void datagramLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+        while (datagramChannel.isOpen()) {
+            try {
+                buffer.clear();
+                SocketAddress sender = datagramChannel.receive(buffer);
+                buffer.flip();
+                long delayNanos = responseDelayNanos.getAsLong();
+                if (delayNanos <= 0) {
+                    datagramChannel.send(buffer, sender);
+                } else {
+                    // Copy out of the shared receive buffer and reply later without holding up the loop
+                    ByteBuffer reply = ByteBuffer.allocate(buffer.remaining()).put(buffer).flip();
+                    handlers.submit(() -> {
+                        Thread.sleep(Duration.ofNanos(delayNanos));
+                        return datagramChannel.send(reply, sender);
+                    });
+                }
+            } catch (IOException e) {
+                if (datagramChannel.isOpen()) {
+                    System.err.println("Echo server receive failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long delayNanos = responseDelayNanos.getAsLong();
+        if (delayNanos > 0) {
+            Thread.sleep(Duration.ofNanos(delayNanos));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        datagramChannel.close();
+        handlers.shutdownNow();
+    }
+}
@@ -1,31 +1,29 @@
 package utils;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
 import main.Metrics;
 
+/**
+ * Static entry point for result logging, backed by an asynchronous {@link ResultSink}.
+ * The output path, rotation and fsync policy are configured through system properties
+ * (see {@link ResultSink#fromSystemProperties()}).
+ */
 public class FileLogger {
-    private static final String OUTPUT_DIR = "C:/Users/Dell/Desktop/Eclipse project/JavaThreadPlayground/src/output";
-    private static final String FILE_PATH = OUTPUT_DIR + "/results.txt";
+    private static final ResultSink SINK = ResultSink.fromSystemProperties();
+
+    static {
+        // The writer is a daemon thread: drain whatever is still queued before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(SINK::close, "result-sink-shutdown"));
+    }
 
     public static void log(Metrics result) {
-        try {
-            // Ensure the directory exists
-            File directory = new File(OUTPUT_DIR);
-            if (!directory.exists()) {
-                directory.mkdirs(); // create directories if they don't exist
-            }
+        SINK.log(result);
+    }
 
-            // Write or append to the results.txt file
-            try (PrintWriter out = new PrintWriter(new FileWriter(FILE_PATH, true))) {
-                out.println(result.format());
-                out.println("-------------------------------");
-            }
+    public static void flush() {
+        SINK.flush();
+    }
 
-        } catch (IOException e) {
-            System.err.println("Error writing to file: " + e.getMessage());
-        }
+    public static ResultSink sink() {
+        return SINK;
     }
 }
@@ -0,0 +1,144 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, allocation-free latency histogram (HdrHistogram-style log-linear buckets).
+ *
+ * Values are nanoseconds. Each power-of-two range is split into 64 linear sub-buckets,
+ * so any recorded value is reported within ~1.6% of its true value. Recording threads
+ * are spread over striped counter arrays to keep cache-line contention off the hot path;
+ * the stripes are only merged when a snapshot is taken.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;       // 128
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >>> 1;       // 64
+    private static final int MAX_EXPONENT = 40;                              // ~18 minutes in ns
+    private static final long MAX_TRACKABLE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+
+    // Extra slots stored behind the buckets of every stripe
+    private static final int TOTAL_SLOT = BUCKET_COUNT;
+    private static final int SUM_SLOT = BUCKET_COUNT + 1;
+    private static final int MAX_SLOT = BUCKET_COUNT + 2;
+    private static final int STRIPE_LENGTH = BUCKET_COUNT + 3;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public LatencyHistogram(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicLongArray(STRIPE_LENGTH);
+        }
+        this.stripeMask = size - 1;
+    }
+
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE);
+        AtomicLongArray stripe = stripes[stripeIndex()];
+        stripe.getAndIncrement(indexOf(value));
+        stripe.getAndIncrement(TOTAL_SLOT);
+        stripe.getAndAdd(SUM_SLOT, value);
+
+        long max = stripe.get(MAX_SLOT);
+        while (value > max && !stripe.compareAndSet(MAX_SLOT, max, value)) {
+            max = stripe.get(MAX_SLOT);
+        }
+    }
+
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < STRIPE_LENGTH; i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0, sum = 0, max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+            total += stripe.get(TOTAL_SLOT);
+            sum += stripe.get(SUM_SLOT);
+            max = Math.max(max, stripe.get(MAX_SLOT));
+        }
+        return new Snapshot(counts, total, sum, max);
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) & stripeMask;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /** Point-in-time, merged view of all stripes. */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long totalCount;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long totalCount, long sum, long max) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return totalCount;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public double mean() {
+            return totalCount > 0 ? (double) sum / totalCount : 0.0;
+        }
+
+        /** Returns the highest value equivalent to the given percentile (0-100), in nanoseconds. */
+        public long valueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount);
+            rank = Math.max(rank, 1);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
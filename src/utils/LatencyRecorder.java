@@ -0,0 +1,38 @@
+package utils;
+
+/**
+ * Per-run latency recorder shared by all strategies.
+ *
+ * Queue delay is the time a task spent waiting between submission and the moment a thread
+ * picked it up; service time is start-to-finish on that thread. All timestamps come from
+ * {@link System#nanoTime()}. Starts and completions are also forwarded to {@link LiveMetrics}.
+ */
+public class LatencyRecorder {
+
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LatencyHistogram queueDelay = new LatencyHistogram();
+
+    /** Marks a task as picked up by a thread; only feeds the live running/queue-depth gauges. */
+    public void started() {
+        LiveMetrics.started();
+    }
+
+    public void record(long enqueuedAt, long startedAt, long endedAt) {
+        queueDelay.record(startedAt - enqueuedAt);
+        serviceTime.record(endedAt - startedAt);
+        LiveMetrics.completed(endedAt - startedAt);
+    }
+
+    /** A started task that was cancelled part way through; kept out of both histograms. */
+    public void abandoned() {
+        LiveMetrics.abandoned();
+    }
+
+    public LatencyHistogram serviceTime() {
+        return serviceTime;
+    }
+
+    public LatencyHistogram queueDelay() {
+        return queueDelay;
+    }
+}
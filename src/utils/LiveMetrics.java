@@ -0,0 +1,327 @@
+package utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.sun.net.httpserver.HttpServer;
+
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * In-flight counters for long runs, published once per second while a benchmark is running.
+ *
+ * Strategies feed task counts and service times through {@link LatencyRecorder} and
+ * {@link main.ArrivalSchedule}; GC pauses, pinned virtual threads, thread parks and CPU load
+ * come from a JFR {@link RecordingStream}. Every second the counters are turned into a
+ * snapshot (throughput, rolling p99, queue depth, per-second JFR figures) that is exposed as
+ * the {@code playground:type=LiveMetrics} MBean and, if {@code live.port} is set, as
+ * Prometheus text on {@code http://127.0.0.1:<port>/metrics}.
+ *
+ * The counters are process-wide, so totals keep growing across runs; running and queue depth
+ * are taken relative to a baseline set by {@link #beginRun()}, so tasks a timed-out run left
+ * behind don't inflate the next run's gauges.
+ *
+ * Disabled unless {@code live.enabled=true} or {@code live.port} is given; when disabled
+ * the recording calls are no-ops.
+ */
+public class LiveMetrics implements LiveMetricsMXBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("live.enabled") || System.getProperty("live.port") != null;
+
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Duration PARK_THRESHOLD = Duration.ofMillis(10);
+
+    private static final LongAdder SUBMITTED = new LongAdder();
+    private static final LongAdder STARTED = new LongAdder();
+    private static final LongAdder COMPLETED = new LongAdder();
+    private static final LongAdder ABANDONED = new LongAdder();
+    private static final DoubleAdder GC_PAUSE_MS = new DoubleAdder();
+    private static final LongAdder PINNED = new LongAdder();
+    private static final LongAdder PARKS = new LongAdder();
+
+    // Service times of the current window, [0] in even and [1] in odd phases. Writers bump the
+    // phase's start count before recording and its end count after, so the publisher can flip
+    // the phase and wait until every writer of the old one is done before reading and resetting it
+    private static final LatencyHistogram[] WINDOWS = {new LatencyHistogram(), new LatencyHistogram()};
+    private static final AtomicLong WINDOW_START = new AtomicLong();  // negative in odd phases
+    private static final AtomicLong EVEN_END = new AtomicLong();
+    private static final AtomicLong ODD_END = new AtomicLong(Long.MIN_VALUE);
+
+    private static volatile Baseline baseline = new Baseline(0, 0, 0, 0);
+
+    private static LiveMetrics instance;
+
+    private volatile Snapshot snapshot = new Snapshot(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    private volatile double jvmCpuLoad;
+    private volatile double machineCpuLoad;
+
+    private record Baseline(long submitted, long started, long completed, long abandoned) {
+    }
+
+    private record Snapshot(long submitted, long running, long completed, long queueDepth, double throughput,
+                            double p99Ms, double gcPauseMs, long pinned, long parks,
+                            double totalGcPauseMs, long totalPinned) {
+    }
+
+    private LiveMetrics() {
+    }
+
+    /** Starts the publisher, JFR stream, MBean and HTTP endpoint once, if live metrics are enabled. */
+    public static synchronized void startIfEnabled() {
+        if (!ENABLED || instance != null) {
+            return;
+        }
+        instance = new LiveMetrics();
+        instance.startJfr();
+        instance.registerMBean();
+        MemoryMonitor.harnessThread(Thread.ofPlatform().daemon().name("live-metrics").start(instance::run));
+    }
+
+    /** Starts the running/queue-depth gauges of a new run from the current counter values. */
+    public static void beginRun() {
+        if (ENABLED) {
+            baseline = new Baseline(SUBMITTED.sum(), STARTED.sum(), COMPLETED.sum(), ABANDONED.sum());
+        }
+    }
+
+    public static void submitted() {
+        if (ENABLED) {
+            SUBMITTED.increment();
+        }
+    }
+
+    public static void submitted(int tasks) {
+        if (ENABLED) {
+            SUBMITTED.add(tasks);
+        }
+    }
+
+    public static void started() {
+        if (ENABLED) {
+            STARTED.increment();
+        }
+    }
+
+    public static void completed(long serviceNanos) {
+        if (ENABLED) {
+            COMPLETED.increment();
+            long phase = WINDOW_START.getAndIncrement();
+            try {
+                WINDOWS[phase < 0 ? 1 : 0].record(serviceNanos);
+            } finally {
+                (phase < 0 ? ODD_END : EVEN_END).getAndIncrement();
+            }
+        }
+    }
+
+    // Cancelled part way through: no longer running, but not a completion either
+    public static void abandoned() {
+        if (ENABLED) {
+            ABANDONED.increment();
+        }
+    }
+
+    private void startJfr() {
+        RecordingStream events = new RecordingStream();
+        events.enable("jdk.GarbageCollection");
+        events.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20));
+        events.enable("jdk.ThreadPark").withThreshold(PARK_THRESHOLD);
+        events.enable("jdk.CPULoad").withPeriod(Duration.ofSeconds(1));
+        events.onEvent("jdk.GarbageCollection", e -> GC_PAUSE_MS.add(e.getDuration("sumOfPauses").toNanos() / 1e6));
+        events.onEvent("jdk.VirtualThreadPinned", e -> PINNED.increment());
+        events.onEvent("jdk.ThreadPark", e -> PARKS.increment());
+        events.onEvent("jdk.CPULoad", e -> {
+            jvmCpuLoad = e.getFloat("jvmUser") + e.getFloat("jvmSystem");
+            machineCpuLoad = e.getFloat("machineTotal");
+        });
+        events.setReuse(true);
+        // startAsync() would run the stream on a non-daemon thread; start() blocks on a daemon one instead
+        MemoryMonitor.harnessThread(Thread.ofPlatform().daemon().name("live-metrics-jfr").start(events::start));
+    }
+
+    private void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("playground:type=LiveMetrics"));
+        } catch (JMException e) {
+            System.err.println("⚠️ Could not register live metrics MBean: " + e.getMessage());
+        }
+    }
+
+    private void startHttp(int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = prometheusText().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            System.out.println("Live metrics: http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not start live metrics endpoint: " + e.getMessage());
+        }
+    }
+
+    // The HTTP dispatcher thread inherits daemon status from the thread that starts the server,
+    // so it is started here rather than on the caller's thread, which would keep the JVM alive
+    private void run() {
+        Integer port = Integer.getInteger("live.port");
+        if (port != null) {
+            startHttp(port);
+        }
+        publishLoop();
+    }
+
+    // Flips the window phase and returns the p99 of the one just closed, then resets it for reuse
+    private static double closeWindowP99Ms() {
+        boolean nextOdd = WINDOW_START.get() >= 0;
+        AtomicLong nextEnd = nextOdd ? ODD_END : EVEN_END;
+        AtomicLong previousEnd = nextOdd ? EVEN_END : ODD_END;
+        nextEnd.set(nextOdd ? Long.MIN_VALUE : 0);
+        long previousStart = WINDOW_START.getAndSet(nextOdd ? Long.MIN_VALUE : 0);
+        while (previousEnd.get() != previousStart) {
+            Thread.onSpinWait(); // a writer of the old phase is still recording
+        }
+        LatencyHistogram window = WINDOWS[nextOdd ? 0 : 1];
+        double p99Ms = window.snapshot().valueAtPercentile(99) / 1e6;
+        window.reset();
+        return p99Ms;
+    }
+
+    private void publishLoop() {
+        long lastCompleted = 0;
+        double lastGcPause = 0;
+        long lastPinned = 0;
+        long lastParks = 0;
+        long lastNanos = System.nanoTime();
+        while (true) {
+            try {
+                Thread.sleep(Duration.ofNanos(PUBLISH_INTERVAL_NANOS));
+            } catch (InterruptedException e) {
+                return;
+            }
+            double p99Ms = closeWindowP99Ms();
+
+            long now = System.nanoTime();
+            long submitted = SUBMITTED.sum();
+            long started = STARTED.sum();
+            long completed = COMPLETED.sum();
+            long abandoned = ABANDONED.sum();
+            double gcPause = GC_PAUSE_MS.sum();
+            long pinned = PINNED.sum();
+            long parks = PARKS.sum();
+            Baseline run = baseline;
+            long running = (started - run.started()) - (completed - run.completed()) - (abandoned - run.abandoned());
+            long queueDepth = (submitted - run.submitted()) - (started - run.started());
+            snapshot = new Snapshot(submitted, Math.max(0, running), completed, Math.max(0, queueDepth),
+                    (completed - lastCompleted) / ((now - lastNanos) / 1e9), p99Ms,
+                    gcPause - lastGcPause, pinned - lastPinned, parks - lastParks, gcPause, pinned);
+            lastCompleted = completed;
+            lastGcPause = gcPause;
+            lastPinned = pinned;
+            lastParks = parks;
+            lastNanos = now;
+        }
+    }
+
+    private String prometheusText() {
+        Snapshot s = snapshot;
+        StringBuilder out = new StringBuilder(1024);
+        metric(out, "playground_tasks_submitted_total", "counter", "Tasks released by the arrival schedule", s.submitted());
+        metric(out, "playground_tasks_completed_total", "counter", "Tasks finished", s.completed());
+        metric(out, "playground_tasks_running", "gauge", "Tasks picked up but not finished", s.running());
+        metric(out, "playground_queue_depth", "gauge", "Tasks submitted but not yet picked up", s.queueDepth());
+        metric(out, "playground_throughput_tasks_per_second", "gauge", "Completions in the last second", s.throughput());
+        metric(out, "playground_service_time_p99_seconds", "gauge", "p99 service time over the last second", s.p99Ms() / 1000);
+        metric(out, "playground_gc_pause_seconds_total", "counter", "GC pause time reported by JFR", s.totalGcPauseMs() / 1000);
+        metric(out, "playground_virtual_thread_pinned_total", "counter", "jdk.VirtualThreadPinned events", s.totalPinned());
+        metric(out, "playground_thread_parks_per_second", "gauge", "jdk.ThreadPark events over 10ms in the last second", s.parks());
+        header(out, "playground_cpu_load", "gauge", "CPU load reported by JFR");
+        out.append("playground_cpu_load{scope=\"jvm\"} ").append(jvmCpuLoad).append('\n');
+        out.append("playground_cpu_load{scope=\"machine\"} ").append(machineCpuLoad).append('\n');
+        return out.toString();
+    }
+
+    private static void metric(StringBuilder out, String name, String type, String help, long value) {
+        header(out, name, type, help).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void metric(StringBuilder out, String name, String type, String help, double value) {
+        header(out, name, type, help).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static StringBuilder header(StringBuilder out, String name, String type, String help) {
+        return out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    @Override
+    public long getSubmittedTasks() {
+        return snapshot.submitted();
+    }
+
+    @Override
+    public long getRunningTasks() {
+        return snapshot.running();
+    }
+
+    @Override
+    public long getCompletedTasks() {
+        return snapshot.completed();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return snapshot.queueDepth();
+    }
+
+    @Override
+    public double getThroughput() {
+        return snapshot.throughput();
+    }
+
+    @Override
+    public double getRollingP99Ms() {
+        return snapshot.p99Ms();
+    }
+
+    @Override
+    public double getGcPauseMs() {
+        return snapshot.gcPauseMs();
+    }
+
+    @Override
+    public long getPinnedEvents() {
+        return snapshot.pinned();
+    }
+
+    @Override
+    public long getThreadParks() {
+        return snapshot.parks();
+    }
+
+    @Override
+    public double getJvmCpuLoad() {
+        return jvmCpuLoad;
+    }
+
+    @Override
+    public double getMachineCpuLoad() {
+        return machineCpuLoad;
+    }
+}
@@ -0,0 +1,27 @@
+package utils;
+
+/** JMX view of {@link LiveMetrics}; every value refers to the last completed one-second window. */
+public interface LiveMetricsMXBean {
+
+    long getSubmittedTasks();
+
+    long getRunningTasks();
+
+    long getCompletedTasks();
+
+    long getQueueDepth();
+
+    double getThroughput();
+
+    double getRollingP99Ms();
+
+    double getGcPauseMs();
+
+    long getPinnedEvents();
+
+    long getThreadParks();
+
+    double getJvmCpuLoad();
+
+    double getMachineCpuLoad();
+}
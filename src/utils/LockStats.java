@@ -0,0 +1,87 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import main.Metrics;
+
+/**
+ * Process-wide counters for the lock contention workloads: acquisitions, time spent waiting
+ * for a lock, blocking calls made by a virtual thread while it held a monitor (pinned in
+ * JDK 21), failed optimistic reads and cache hits.
+ *
+ * Works like {@link MemoryTraffic}: workloads add to the static counters, {@link #start()}
+ * takes a baseline and {@link #stop(Metrics)} stores the difference for the run. An
+ * acquisition counts as contended when the thread waited longer than 10us for it.
+ */
+public class LockStats {
+
+    private static final long CONTENDED_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private static final LongAdder ACQUISITIONS = new LongAdder();
+    private static final LongAdder CONTENDED = new LongAdder();
+    private static final LongAdder WAIT_NANOS = new LongAdder();
+    private static final LongAdder PINNED_BLOCKING = new LongAdder();
+    private static final LongAdder OPTIMISTIC_FAILURES = new LongAdder();
+    private static final LongAdder CACHE_LOOKUPS = new LongAdder();
+    private static final LongAdder CACHE_HITS = new LongAdder();
+
+    private final long baselineAcquisitions;
+    private final long baselineContended;
+    private final long baselineWaitNanos;
+    private final long baselinePinned;
+    private final long baselineOptimisticFailures;
+    private final long baselineLookups;
+    private final long baselineHits;
+
+    private LockStats() {
+        this.baselineAcquisitions = ACQUISITIONS.sum();
+        this.baselineContended = CONTENDED.sum();
+        this.baselineWaitNanos = WAIT_NANOS.sum();
+        this.baselinePinned = PINNED_BLOCKING.sum();
+        this.baselineOptimisticFailures = OPTIMISTIC_FAILURES.sum();
+        this.baselineLookups = CACHE_LOOKUPS.sum();
+        this.baselineHits = CACHE_HITS.sum();
+    }
+
+    public static LockStats start() {
+        return new LockStats();
+    }
+
+    /** One lock acquisition after waiting {@code waitNanos} for it (0 for an immediate tryLock). */
+    public static void acquired(long waitNanos) {
+        ACQUISITIONS.increment();
+        WAIT_NANOS.add(waitNanos);
+        if (waitNanos > CONTENDED_NANOS) {
+            CONTENDED.increment();
+        }
+    }
+
+    /** A blocking call about to be made while holding a monitor; pins the carrier if on a virtual thread. */
+    public static void blockingInMonitor() {
+        if (Thread.currentThread().isVirtual()) {
+            PINNED_BLOCKING.increment();
+        }
+    }
+
+    public static void optimisticReadFailed() {
+        OPTIMISTIC_FAILURES.increment();
+    }
+
+    public static void cacheLookup(boolean hit) {
+        CACHE_LOOKUPS.increment();
+        if (hit) {
+            CACHE_HITS.increment();
+        }
+    }
+
+    public void stop(Metrics metrics) {
+        metrics.lockAcquisitions = ACQUISITIONS.sum() - baselineAcquisitions;
+        metrics.contendedAcquisitions = CONTENDED.sum() - baselineContended;
+        metrics.lockWaitMs = TimeUnit.NANOSECONDS.toMillis(WAIT_NANOS.sum() - baselineWaitNanos);
+        metrics.pinnedBlockingCalls = PINNED_BLOCKING.sum() - baselinePinned;
+        metrics.optimisticReadFailures = OPTIMISTIC_FAILURES.sum() - baselineOptimisticFailures;
+        long lookups = CACHE_LOOKUPS.sum() - baselineLookups;
+        metrics.cacheHitRatio = lookups > 0 ? (double) (CACHE_HITS.sum() - baselineHits) / lookups : 0;
+    }
+}
@@ -0,0 +1,269 @@
+package utils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import main.Metrics;
+
+/**
+ * Measures what a single strategy run allocates and how much GC work it causes.
+ *
+ * Allocated bytes come from {@link ThreadMXBean#getThreadAllocatedBytes(long[])}, polled for
+ * every live platform thread while the run is in progress. Workers created through
+ * {@link #tracked(Runnable)}, {@link #trackingFactory(ThreadFactory)} or
+ * {@link #FORK_JOIN_FACTORY} report their final count as they exit, so allocations made after
+ * the last poll are not lost. Virtual threads are not listed by the MXBean, but HotSpot charges
+ * their allocations to the carrier thread they are mounted on, so polling the carriers covers
+ * them as well.
+ *
+ * Harness threads (samplers, the result sink, JFR and the metrics endpoint) are left out: they
+ * register through {@link #harnessThread(Thread)}, and JDK threads are matched by name.
+ *
+ * GC counts and pause time come from {@link GarbageCollectorMXBean} notifications inside the
+ * run window. Peak heap is the larger of the polled heap usage and the heap occupancy reported
+ * just before each collection, which is where the real peak sits.
+ *
+ * {@link #close()} stops the poller and GC listeners without reporting, for runs that fail.
+ */
+public class MemoryMonitor implements AutoCloseable {
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final String[] HARNESS_NAME_PREFIXES = {"JFR ", "HTTP-Dispatcher", "RMI ", "Attach Listener", "Notification Thread"};
+
+    private static final Set<Long> HARNESS_THREADS = ConcurrentHashMap.newKeySet();
+    // Thread id -> allocated bytes at exit, for workers that exit before the next poll sees them
+    private static final Map<Long, Long> EXITED_BYTES = new ConcurrentHashMap<>();
+
+    /** ForkJoin worker factory whose threads report their allocations as they terminate. */
+    public static final ForkJoinPool.ForkJoinWorkerThreadFactory FORK_JOIN_FACTORY = pool -> new ForkJoinWorkerThread(pool) {
+        @Override
+        protected void onTermination(Throwable exception) {
+            threadExiting();
+            super.onTermination(exception);
+        }
+    };
+
+    private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+    private final Set<String> heapPools = new HashSet<>();
+    private final Map<Long, Long> baselineBytes = new HashMap<>();
+    private final Map<Long, Long> lastBytes = new HashMap<>();
+    private final Map<Long, Boolean> excluded = new HashMap<>();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private final AtomicLong gcCount = new AtomicLong();
+    private final AtomicLong gcPauseMs = new AtomicLong();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener gcListener = this::onGc;
+
+    private volatile boolean running = true;
+    private Thread poller;
+    private long startNanos;
+
+    private MemoryMonitor() {
+    }
+
+    /** Marks a measurement thread so its allocations are never charged to a run. */
+    public static Thread harnessThread(Thread thread) {
+        HARNESS_THREADS.add(thread.threadId());
+        return thread;
+    }
+
+    /** Wraps a worker body so the thread records its final allocated bytes when it finishes. */
+    public static Runnable tracked(Runnable body) {
+        return () -> {
+            try {
+                body.run();
+            } finally {
+                threadExiting();
+            }
+        };
+    }
+
+    public static ThreadFactory trackingFactory(ThreadFactory factory) {
+        return body -> factory.newThread(tracked(body));
+    }
+
+    private static void threadExiting() {
+        Thread current = Thread.currentThread();
+        if (!current.isVirtual()) {
+            long bytes = ((ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+            if (bytes >= 0) {
+                EXITED_BYTES.put(current.threadId(), bytes);
+            }
+        }
+    }
+
+    public static MemoryMonitor start() {
+        MemoryMonitor monitor = new MemoryMonitor();
+        monitor.begin();
+        return monitor;
+    }
+
+    private void begin() {
+        if (threadBean.isThreadAllocatedMemorySupported() && !threadBean.isThreadAllocatedMemoryEnabled()) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(gcListener, null, null);
+                emitters.add(emitter);
+            }
+        }
+
+        poller = harnessThread(new Thread(this::pollLoop, "memory-monitor"));
+        poller.setDaemon(true);
+
+        startNanos = System.nanoTime();
+        EXITED_BYTES.clear();
+        sampleThreads(baselineBytes);
+        // A previous run's worker that exited just before the baseline was sampled is not part of this run
+        EXITED_BYTES.forEach(baselineBytes::putIfAbsent);
+        lastBytes.putAll(baselineBytes);
+        peakHeapBytes.set(memoryBean.getHeapMemoryUsage().getUsed());
+        poller.start();
+    }
+
+    public void stop(Metrics metrics) {
+        close();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        sampleThreads(lastBytes);
+        // Exit counts are final, so they supersede whatever the last poll saw
+        for (Map.Entry<Long, Long> exited : EXITED_BYTES.entrySet()) {
+            if (!isHarness(exited.getKey())) {
+                lastBytes.merge(exited.getKey(), exited.getValue(), Math::max);
+            }
+        }
+
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : lastBytes.entrySet()) {
+            allocated += Math.max(0, entry.getValue() - baselineBytes.getOrDefault(entry.getKey(), 0L));
+        }
+
+        metrics.allocatedBytes = allocated;
+        metrics.allocationRateMBps = elapsedNanos > 0 ? (allocated / 1_048_576.0) / (elapsedNanos / 1e9) : 0.0;
+        metrics.gcCount = gcCount.get();
+        metrics.gcPauseMs = gcPauseMs.get();
+        metrics.peakHeapKB = peakHeapBytes.get() / 1024;
+    }
+
+    /** Stops the poller and removes the GC listeners; does nothing once stopped. */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(poller);
+        try {
+            poller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (Exception ignored) {
+                // Listener already gone
+            }
+        }
+    }
+
+    private void pollLoop() {
+        while (running) {
+            LockSupport.parkNanos(POLL_INTERVAL_NANOS);
+            sampleThreads(lastBytes);
+            updatePeak(memoryBean.getHeapMemoryUsage().getUsed());
+        }
+    }
+
+    // Only ever called by one thread at a time: the caller of start/stop, or the poller in between
+    private void sampleThreads(Map<Long, Long> into) {
+        long[] ids = threadBean.getAllThreadIds();
+        long[] bytes = threadBean.getThreadAllocatedBytes(ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0 && !isHarness(ids[i])) {
+                into.put(ids[i], bytes[i]);
+            }
+        }
+    }
+
+    // Names are looked up once per thread, without a stack trace
+    private boolean isHarness(long id) {
+        if (HARNESS_THREADS.contains(id)) {
+            return true;
+        }
+        return excluded.computeIfAbsent(id, key -> {
+            ThreadInfo info = threadBean.getThreadInfo(key, 0);
+            if (info == null) {
+                return false;
+            }
+            for (String prefix : HARNESS_NAME_PREFIXES) {
+                if (info.getThreadName().startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    private void onGc(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        gcCount.incrementAndGet();
+
+        // Concurrent cycles (G1 Concurrent GC, ZGC/Shenandoah Cycles) do not stop application threads
+        String name = info.getGcName();
+        if (!name.contains("Concurrent") && !name.contains("Cycles")) {
+            gcPauseMs.addAndGet(info.getGcInfo().getDuration());
+        }
+
+        long usedBeforeGc = 0;
+        for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageBeforeGc().entrySet()) {
+            if (heapPools.contains(pool.getKey())) {
+                usedBeforeGc += pool.getValue().getUsed();
+            }
+        }
+        updatePeak(usedBeforeGc);
+    }
+
+    private void updatePeak(long usedBytes) {
+        peakHeapBytes.accumulateAndGet(usedBytes, Math::max);
+    }
+}
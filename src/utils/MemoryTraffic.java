@@ -0,0 +1,58 @@
+package utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import main.Metrics;
+
+/**
+ * Process-wide counters for the memory workloads: bytes touched and the dependent loads done
+ * by pointer-chasing tasks.
+ *
+ * Bytes touched is what the tasks read or wrote, counting a whole 64-byte line per chase load.
+ * It is not DRAM traffic: a chase through an L2-sized ring touches many gigabytes per second
+ * while hardly reaching memory, so compare it only between runs of the same workload.
+ *
+ * Works like {@link NetworkStats}: workloads add to the static counters, {@link #start()}
+ * takes a baseline and {@link #stop(Metrics)} turns the difference into bandwidth for the run.
+ */
+public class MemoryTraffic {
+
+    private static final LongAdder BYTES = new LongAdder();
+    private static final LongAdder DEPENDENT_LOADS = new LongAdder();
+    private static final LongAdder DEPENDENT_LOAD_NANOS = new LongAdder();
+
+    private final long baselineBytes;
+    private final long baselineLoads;
+    private final long baselineLoadNanos;
+    private final long startNanos;
+
+    private MemoryTraffic() {
+        this.baselineBytes = BYTES.sum();
+        this.baselineLoads = DEPENDENT_LOADS.sum();
+        this.baselineLoadNanos = DEPENDENT_LOAD_NANOS.sum();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static MemoryTraffic start() {
+        return new MemoryTraffic();
+    }
+
+    public static void touched(long bytes) {
+        BYTES.add(bytes);
+    }
+
+    /** A chain of {@code loads} dependent loads that took {@code nanos}; each load touches one cache line. */
+    public static void chased(long loads, long nanos) {
+        DEPENDENT_LOADS.add(loads);
+        DEPENDENT_LOAD_NANOS.add(nanos);
+        BYTES.add(loads * 64);
+    }
+
+    public void stop(Metrics metrics) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long loads = DEPENDENT_LOADS.sum() - baselineLoads;
+        metrics.memoryTrafficBytes = BYTES.sum() - baselineBytes;
+        metrics.memoryBandwidthGBps = seconds > 0 ? metrics.memoryTrafficBytes / 1e9 / seconds : 0;
+        metrics.dependentLoadNs = loads > 0 ? (double) (DEPENDENT_LOAD_NANOS.sum() - baselineLoadNanos) / loads : 0;
+    }
+}
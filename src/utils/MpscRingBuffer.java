@@ -0,0 +1,77 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer ring buffer (Vyukov sequence scheme).
+ *
+ * Every slot carries a sequence number: producers claim a position with one CAS on the tail
+ * and publish the element by advancing the slot's sequence, so the consumer never sees a
+ * half-written slot. {@link #offer(Object)} returns false when the buffer is full, which is
+ * how callers apply backpressure. {@link #poll()} must only be called from one thread.
+ */
+public class MpscRingBuffer<E> {
+
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(E element) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // consumer hasn't freed this slot yet: full
+            } else {
+                position = tail.get();
+            }
+        }
+        buffer[index] = element;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head.getPlain();
+        int index = (int) position & mask;
+        if (sequences.getAcquire(index) != position + 1) {
+            return null;
+        }
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        sequences.setRelease(index, position + mask + 1);
+        head.setRelease(position + 1);
+        return element;
+    }
+
+    /** Approximate number of queued elements; exact only when producers and consumer are quiet. */
+    public int size() {
+        long size = tail.get() - head.getAcquire();
+        return (int) Math.max(0, Math.min(size, buffer.length));
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,70 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import main.Metrics;
+
+/**
+ * Process-wide counters for the loopback network workloads: bytes moved by clients and the
+ * connections (or UDP sockets) they open.
+ *
+ * Clients update the static counters; {@link #start()} takes a baseline before a run and
+ * {@link #stop(Metrics)} writes the difference into the run's metrics.
+ */
+public class NetworkStats {
+
+    private static final LongAdder BYTES = new LongAdder();
+    private static final LongAdder CONNECTIONS = new LongAdder();
+    private static final LongAdder FAILURES = new LongAdder();
+    private static final AtomicInteger OPEN = new AtomicInteger();
+    private static final AtomicInteger PEAK_OPEN = new AtomicInteger();
+
+    private final long baselineBytes;
+    private final long baselineConnections;
+    private final long baselineFailures;
+    private final long startNanos;
+
+    private NetworkStats() {
+        PEAK_OPEN.set(OPEN.get());
+        this.baselineBytes = BYTES.sum();
+        this.baselineConnections = CONNECTIONS.sum();
+        this.baselineFailures = FAILURES.sum();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static NetworkStats start() {
+        return new NetworkStats();
+    }
+
+    public static void connectionOpened() {
+        CONNECTIONS.increment();
+        int open = OPEN.incrementAndGet();
+        int peak;
+        while (open > (peak = PEAK_OPEN.get()) && !PEAK_OPEN.compareAndSet(peak, open)) {
+            // retry until the peak is at least what we just saw
+        }
+    }
+
+    public static void connectionClosed() {
+        OPEN.decrementAndGet();
+    }
+
+    /** Bytes sent plus bytes received, including framing. */
+    public static void transferred(long bytes) {
+        BYTES.add(bytes);
+    }
+
+    public static void failed() {
+        FAILURES.increment();
+    }
+
+    public void stop(Metrics metrics) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        metrics.networkBytes = BYTES.sum() - baselineBytes;
+        metrics.networkMBps = seconds > 0 ? metrics.networkBytes / (1024.0 * 1024.0) / seconds : 0;
+        metrics.connectionsOpened = CONNECTIONS.sum() - baselineConnections;
+        metrics.peakOpenConnections = PEAK_OPEN.get();
+        metrics.networkFailures = FAILURES.sum() - baselineFailures;
+    }
+}
@@ -0,0 +1,287 @@
+package utils;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import main.Metrics;
+
+/**
+ * Asynchronous, append-only result sink.
+ *
+ * Callers only enqueue into a bounded lock-free ring buffer; a single background writer drains
+ * it in batches, encodes records into one reused direct {@link ByteBuffer} and appends them
+ * through a {@link FileChannel}. The file is rotated once it grows past {@code maxBytes}, and
+ * durability is chosen with {@link FsyncPolicy}.
+ *
+ * Metrics are never dropped (the caller waits for room); plain sample lines are dropped and
+ * counted when the buffer is full, so diagnostics can't stall the code being measured.
+ *
+ * The writer parks while the buffer is empty and is unparked by the next enqueue. If a write
+ * fails the writer stops, and from then on {@link #log} and {@link #flush()} throw instead of
+ * queueing records nobody will write.
+ */
+public final class ResultSink implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        NONE,       // leave it to the OS page cache
+        PER_BATCH,  // group commit: one force() per drained batch
+        PERIODIC    // force() at most once per second
+    }
+
+    private static final String SEPARATOR = "-------------------------------" + System.lineSeparator();
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PERIODIC_FSYNC_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final FsyncPolicy fsyncPolicy;
+
+    private final MpscRingBuffer<Object> queue;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final Thread writer;
+    private final AtomicBoolean writerIdle = new AtomicBoolean();
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private FileChannel channel;
+    private long lastFsyncNanos = System.nanoTime();
+
+    public ResultSink(Path path, long maxBytes, int maxFiles, FsyncPolicy fsyncPolicy, int queueCapacity) {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.fsyncPolicy = fsyncPolicy;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.writer = MemoryMonitor.harnessThread(new Thread(this::writeLoop, "result-sink"));
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Sink configured from system properties:
+     * {@code results.path} (default src/output/results.txt), {@code results.maxBytes} (10 MB),
+     * {@code results.maxFiles} (5) and {@code results.fsync} (NONE, PER_BATCH or PERIODIC).
+     */
+    public static ResultSink fromSystemProperties() {
+        return new ResultSink(
+                Path.of(System.getProperty("results.path", "src/output/results.txt")),
+                Long.getLong("results.maxBytes", 10L * 1024 * 1024),
+                Integer.getInteger("results.maxFiles", 5),
+                FsyncPolicy.valueOf(System.getProperty("results.fsync", "PER_BATCH")),
+                4096);
+    }
+
+    public void log(Metrics metrics) {
+        while (!tryEnqueue(metrics) && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /** Queues one line (a newline is appended), waiting for room if the buffer is full. */
+    public void log(CharSequence line) {
+        while (!tryEnqueue(line) && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /** Queues one line (a newline is appended); returns false and counts a drop if the buffer is full. */
+    public boolean offer(CharSequence line) {
+        if (failure == null && tryEnqueue(line)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    private boolean tryEnqueue(Object record) {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("Result sink is closed");
+        }
+        if (!queue.offer(record)) {
+            return false;
+        }
+        enqueued.incrementAndGet();
+        VarHandle.fullFence(); // publish the record before reading the flag; pairs with the fence in writeLoop()
+        if (writerIdle.get()) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /** Waits until everything queued so far has been handed to the file channel. */
+    public void flush() {
+        awaitWritten();
+        checkFailure();
+    }
+
+    private void awaitWritten() {
+        long target = enqueued.get();
+        while (written.get() < target && writer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    private void checkFailure() {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Result sink stopped after a write error: " + cause.getMessage(), cause);
+        }
+    }
+
+    public long droppedRecords() {
+        return dropped.get();
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        awaitWritten();
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (!closed || queue.size() > 0) {
+                int batch = drainBatch();
+                if (batch == 0) {
+                    writerIdle.set(true);
+                    VarHandle.fullFence();
+                    // Re-check after raising the flag so an enqueue that missed it is not left waiting
+                    if (!closed && queue.size() == 0) {
+                        LockSupport.park(this);
+                    }
+                    writerIdle.set(false);
+                    continue;
+                }
+                commit();
+                written.addAndGet(batch);
+            }
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("⚠️ Result sink stopped, records are no longer written: " + e.getMessage());
+        } finally {
+            try {
+                if (channel != null) {
+                    channel.force(false);
+                    channel.close();
+                }
+            } catch (IOException ignored) {
+                // Nothing left to report to
+            }
+        }
+    }
+
+    private int drainBatch() throws IOException {
+        int count = 0;
+        Object record;
+        while ((record = queue.poll()) != null) {
+            if (record instanceof Metrics metrics) {
+                encode(metrics.format());
+                encode(System.lineSeparator());
+                encode(SEPARATOR);
+            } else {
+                encode((CharSequence) record);
+                encode(System.lineSeparator());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private void encode(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                writeBuffer();
+            } else {
+                break;
+            }
+        }
+        encoder.reset();
+    }
+
+    private void commit() throws IOException {
+        writeBuffer();
+        long now = System.nanoTime();
+        if (fsyncPolicy == FsyncPolicy.PER_BATCH
+                || (fsyncPolicy == FsyncPolicy.PERIODIC && now - lastFsyncNanos >= PERIODIC_FSYNC_NANOS)) {
+            channel.force(false);
+            lastFsyncNanos = now;
+        }
+        if (channel.size() >= maxBytes) {
+            rotate();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            FileChannel out = channel();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    // results.txt -> results.txt.1 -> ... -> results.txt.<maxFiles - 1>; the oldest is dropped
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        channel = null;
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = i == 1 ? path : rotated(i - 1);
+            if (Files.exists(from)) {
+                Files.move(from, rotated(i), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles <= 1) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private Path rotated(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
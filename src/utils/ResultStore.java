@@ -0,0 +1,420 @@
+package utils;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import main.Metrics;
+
+/**
+ * Append-only binary store of benchmark runs, for querying and comparing results across JDKs,
+ * GCs and commits.
+ *
+ * Every record is framed as {@code [int length][int crc32][payload]}. A frame cut short by the
+ * end of the file is a torn write and is skipped (and cut off by the next append); a bad length
+ * or checksum anywhere else means the file is corrupt and fails with an IOException. A payload
+ * starts with a type byte:
+ *
+ * <pre>
+ * 'S' schema  short schemaVersion, int n, n x UTF field name
+ * 'R' run     long epochMillis, UTF label, UTF gitCommit, UTF jvm, UTF gc, UTF jvmFlags, int cores,
+ *             UTF threadType, UTF taskType, UTF arrivalModel,
+ *             n x double (every numeric Metrics field, in the order of the last schema record),
+ *             int d, d x (UTF name, UTF value) for Metrics.details
+ * </pre>
+ *
+ * A schema record is written whenever a process appends and the file's last schema differs
+ * from the current Metrics fields, so old runs stay readable after fields are added. Appends
+ * take an exclusive file lock, because forked matrix repetitions write to the same file.
+ *
+ * So that an append doesn't re-read the whole file, a sidecar {@code <store>.idx} holds the end
+ * of the last append and the offset of the last schema record. An append only checks the frames
+ * after that end (normally none) and re-reads the file from the start only if the index is
+ * missing or doesn't match it.
+ *
+ * Configured with {@code results.store} (default src/output/results.bin, empty to disable)
+ * and {@code results.label}, the name runs are grouped under when comparing (default "default").
+ */
+public class ResultStore {
+
+    public static final short SCHEMA_VERSION = 1;
+
+    private static final byte SCHEMA = 'S';
+    private static final byte RUN = 'R';
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_PAYLOAD = 1 << 24;
+    private static final Field[] NUMERIC_FIELDS = numericFields();
+    private static final List<String> FIELD_NAMES = Arrays.stream(NUMERIC_FIELDS).map(Field::getName).toList();
+
+    private static final String STORE_PATH = System.getProperty("results.store", "src/output/results.bin");
+    private static final String LABEL = System.getProperty("results.label", "default");
+
+    /** One stored run. {@code values} holds every numeric Metrics field by name. */
+    public record StoredRun(long epochMillis, String label, String gitCommit, String jvm, String gc, String jvmFlags,
+                            int cores, String threadType, String taskType, String arrivalModel,
+                            Map<String, Double> values, Map<String, String> details) {
+
+        public double value(String field) {
+            return values.getOrDefault(field, Double.NaN);
+        }
+    }
+
+    private final Path path;
+
+    public ResultStore(Path path) {
+        this.path = path;
+    }
+
+    public static Path defaultPath() {
+        return STORE_PATH.isBlank() ? null : Path.of(STORE_PATH);
+    }
+
+    /** Appends to the default store under the configured label; failures are reported, not thrown. */
+    public static void record(Metrics metrics) {
+        Path store = defaultPath();
+        if (store == null) {
+            return;
+        }
+        try {
+            new ResultStore(store).append(metrics, LABEL);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not append to result store " + store + ": " + e.getMessage());
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public void append(Metrics metrics, String label) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.lock(); // released when the channel closes
+            // A torn record left by a crashed writer is cut off, or it would hide everything after it
+            Tail tail = readTail(channel.size());
+            if (tail.validBytes() < channel.size()) {
+                channel.truncate(tail.validBytes());
+            }
+            ByteArrayOutputStream records = new ByteArrayOutputStream(1024);
+            long schemaOffset = tail.schemaOffset();
+            if (!FIELD_NAMES.equals(tail.schema())) {
+                schemaOffset = tail.validBytes();
+                frame(records, schemaPayload());
+            }
+            frame(records, runPayload(metrics, label));
+            channel.position(tail.validBytes());
+            ByteBuffer bytes = ByteBuffer.wrap(records.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            writeIndex(tail.validBytes() + records.size(), schemaOffset);
+        }
+    }
+
+    /** Streams every readable run in file order; stops quietly at a torn tail, throws on a corrupt record. */
+    public void scan(Consumer<StoredRun> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Frames frames = new Frames(0, Files.size(path))) {
+            List<String> schema = List.of();
+            byte[] payload;
+            while ((payload = frames.next()) != null) {
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = record.readByte();
+                if (type == SCHEMA) {
+                    schema = readSchema(record);
+                } else if (type == RUN) {
+                    consumer.accept(readRun(record, schema));
+                }
+            }
+        }
+    }
+
+    public List<StoredRun> readAll() throws IOException {
+        List<StoredRun> runs = new ArrayList<>();
+        scan(runs::add);
+        return runs;
+    }
+
+    private Path indexPath() {
+        return path.resolveSibling(path.getFileName() + ".idx");
+    }
+
+    /** End of the readable records, the last schema in them and where that schema record starts (-1 if none). */
+    private record Tail(long validBytes, List<String> schema, long schemaOffset) {
+    }
+
+    // Picks up from the index if it matches the file, otherwise reads every frame from the start
+    private Tail readTail(long fileSize) throws IOException {
+        Tail indexed = readIndex(fileSize);
+        if (indexed != null) {
+            try {
+                return readFrames(indexed, fileSize);
+            } catch (IOException e) {
+                // The index may belong to a file that has since been replaced; the full read decides
+            }
+        }
+        return readFrames(new Tail(0, null, -1), fileSize);
+    }
+
+    // Reads the frames after {@code from}, keeping track of the last schema record
+    private Tail readFrames(Tail from, long fileSize) throws IOException {
+        long validBytes = from.validBytes();
+        List<String> schema = from.schema();
+        long schemaOffset = from.schemaOffset();
+        try (Frames frames = new Frames(validBytes, fileSize)) {
+            byte[] payload;
+            while ((payload = frames.next()) != null) {
+                if (payload[0] == SCHEMA) {
+                    schema = schema(payload);
+                    schemaOffset = validBytes;
+                }
+                validBytes = frames.offset();
+            }
+        }
+        return new Tail(validBytes, schema, schemaOffset);
+    }
+
+    // null when there is no index or it doesn't describe this file, e.g. after the store was replaced
+    private Tail readIndex(long fileSize) {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indexPath()))) {
+            long validBytes = in.readLong();
+            long schemaOffset = in.readLong();
+            if (validBytes < 0 || validBytes > fileSize || schemaOffset >= validBytes) {
+                return null;
+            }
+            if (schemaOffset < 0) {
+                return new Tail(validBytes, null, -1);
+            }
+            try (Frames frames = new Frames(schemaOffset, validBytes)) {
+                byte[] payload = frames.next();
+                return payload != null && payload[0] == SCHEMA ? new Tail(validBytes, schema(payload), schemaOffset) : null;
+            }
+        } catch (IOException e) {
+            return null; // missing, torn or stale: fall back to reading the whole store
+        }
+    }
+
+    private void writeIndex(long validBytes, long schemaOffset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2 * Long.BYTES);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(validBytes);
+        out.writeLong(schemaOffset);
+        Files.write(indexPath(), bytes.toByteArray());
+    }
+
+    private static List<String> schema(byte[] payload) throws IOException {
+        DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+        record.readByte();
+        return readSchema(record);
+    }
+
+    /** Reads frames from {@code offset} up to {@code end}, telling a torn last frame from a corrupt one. */
+    private class Frames implements Closeable {
+        private final DataInputStream in;
+        private final long end;
+        private long offset;
+
+        Frames(long offset, long end) throws IOException {
+            InputStream file = Files.newInputStream(path);
+            file.skipNBytes(offset);
+            this.in = new DataInputStream(new BufferedInputStream(file, 64 * 1024));
+            this.offset = offset;
+            this.end = end;
+        }
+
+        long offset() {
+            return offset;
+        }
+
+        // Next payload, or null at the end or at a frame that runs past it (a torn write)
+        byte[] next() throws IOException {
+            if (end - offset < HEADER_BYTES) {
+                return null;
+            }
+            int length = in.readInt();
+            int crc = in.readInt();
+            if (length <= 0 || length > MAX_PAYLOAD) {
+                throw new IOException("Corrupt result store " + path + ": bad record length " + length + " at offset " + offset);
+            }
+            if (end - offset - HEADER_BYTES < length) {
+                return null;
+            }
+            byte[] payload = in.readNBytes(length);
+            if (payload.length < length) {
+                return null; // the file shrank while it was being read
+            }
+            if (crc(payload) != crc) {
+                throw new IOException("Corrupt result store " + path + ": checksum mismatch in the record at offset " + offset);
+            }
+            offset += HEADER_BYTES + length;
+            return payload;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static void frame(ByteArrayOutputStream out, byte[] payload) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(payload.length);
+        data.writeInt(crc(payload));
+        data.write(payload);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] schemaPayload() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(SCHEMA);
+        out.writeShort(SCHEMA_VERSION);
+        out.writeInt(FIELD_NAMES.size());
+        for (String name : FIELD_NAMES) {
+            out.writeUTF(name);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<String> readSchema(DataInputStream in) throws IOException {
+        short version = in.readShort();
+        if (version != SCHEMA_VERSION) {
+            throw new IOException("Unsupported result store schema version " + version);
+        }
+        int count = in.readInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(in.readUTF());
+        }
+        return names;
+    }
+
+    private static byte[] runPayload(Metrics metrics, String label) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RUN);
+        out.writeLong(System.currentTimeMillis());
+        out.writeUTF(label);
+        out.writeUTF(Environment.GIT_COMMIT);
+        out.writeUTF(Environment.JVM);
+        out.writeUTF(Environment.GC);
+        out.writeUTF(Environment.JVM_FLAGS);
+        out.writeInt(Runtime.getRuntime().availableProcessors());
+        out.writeUTF(String.valueOf(metrics.threadType));
+        out.writeUTF(String.valueOf(metrics.taskType));
+        out.writeUTF(String.valueOf(metrics.arrivalModel));
+        for (Field field : NUMERIC_FIELDS) {
+            try {
+                out.writeDouble(((Number) field.get(metrics)).doubleValue());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        out.writeInt(metrics.details.size());
+        for (Map.Entry<String, Object> detail : metrics.details.entrySet()) {
+            out.writeUTF(detail.getKey());
+            out.writeUTF(String.valueOf(detail.getValue()));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static StoredRun readRun(DataInputStream in, List<String> schema) throws IOException {
+        long epochMillis = in.readLong();
+        String label = in.readUTF();
+        String gitCommit = in.readUTF();
+        String jvm = in.readUTF();
+        String gc = in.readUTF();
+        String jvmFlags = in.readUTF();
+        int cores = in.readInt();
+        String threadType = in.readUTF();
+        String taskType = in.readUTF();
+        String arrivalModel = in.readUTF();
+        Map<String, Double> values = new LinkedHashMap<>(schema.size() * 2);
+        for (String name : schema) {
+            values.put(name, in.readDouble());
+        }
+        int detailCount = in.readInt();
+        Map<String, String> details = new LinkedHashMap<>();
+        for (int i = 0; i < detailCount; i++) {
+            details.put(in.readUTF(), in.readUTF());
+        }
+        return new StoredRun(epochMillis, label, gitCommit, jvm, gc, jvmFlags, cores, threadType, taskType, arrivalModel, values, details);
+    }
+
+    // Public int/long/double instance fields of Metrics, by name so the order is stable between JVMs
+    private static Field[] numericFields() {
+        return Arrays.stream(Metrics.class.getFields())
+                .filter(f -> !Modifier.isStatic(f.getModifiers()))
+                .filter(f -> f.getType() == int.class || f.getType() == long.class || f.getType() == double.class)
+                .sorted(Comparator.comparing(Field::getName))
+                .toArray(Field[]::new);
+    }
+
+    /** Facts about this JVM that are the same for every run it records. */
+    private static class Environment {
+        static final String JVM = System.getProperty("java.vm.name") + " " + System.getProperty("java.runtime.version");
+        static final String GC = ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .map(GarbageCollectorMXBean::getName).collect(Collectors.joining(","));
+        static final String JVM_FLAGS = String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments());
+        static final String GIT_COMMIT = System.getProperty("results.gitCommit", gitCommit(Path.of(".git")));
+
+        // Resolves HEAD without running git: a detached hash, a loose ref or an entry in packed-refs
+        private static String gitCommit(Path gitDir) {
+            try {
+                String head = Files.readString(gitDir.resolve("HEAD")).trim();
+                if (!head.startsWith("ref: ")) {
+                    return head;
+                }
+                String ref = head.substring("ref: ".length());
+                Path loose = gitDir.resolve(ref);
+                if (Files.exists(loose)) {
+                    return Files.readString(loose).trim();
+                }
+                Path packed = gitDir.resolve("packed-refs");
+                if (Files.exists(packed)) {
+                    for (String line : Files.readAllLines(packed)) {
+                        if (line.endsWith(" " + ref)) {
+                            return line.substring(0, line.indexOf(' '));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // not a checkout; fall through
+            }
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import jdk.jfr.consumer.RecordingStream;
+import main.Metrics;
+
+/**
+ * Samples thread usage alongside a strategy run.
+ *
+ * Platform thread figures come from {@link ThreadMXBean} (peak live count is reset at start,
+ * started count is a delta). Virtual-thread starts and pinning are taken from a JFR stream of
+ * {@code jdk.VirtualThreadStart} and {@code jdk.VirtualThreadPinned}. ForkJoin pools are
+ * discovered through their worker threads, which also finds the JDK's virtual-thread carrier
+ * pool, so steal counts and pool sizes are reported for whichever pool actually ran the tasks.
+ *
+ * Workers are found by enumerating the thread groups, which unlike {@code getAllStackTraces}
+ * needs no safepoint and captures no stacks. A pool's steal baseline is its count when first
+ * seen, unless a strategy created it for this run and said so through {@link #newPool}.
+ *
+ * {@link #close()} stops the sampler thread and the JFR stream without reporting, for runs that fail.
+ */
+public class ThreadSampler implements AutoCloseable {
+
+    private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20); // JDK default
+
+    // Pools created by a strategy, whose steals all belong to the run that created them
+    private static final Set<ForkJoinPool> NEW_POOLS = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    // Pool -> steal count when first seen; only touched by the sampler thread until it is joined
+    private final Map<ForkJoinPool, Long> stealBaselines = new IdentityHashMap<>();
+    private final AtomicLong virtualThreadsStarted = new AtomicLong();
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final ThreadGroup rootGroup;
+    private Thread[] threads = new Thread[64];
+
+    private volatile boolean running = true;
+    private Thread sampler;
+    private RecordingStream events;
+    private long startedBaseline;
+    private int peakCarriers;
+    private long peakQueuedTasks;
+
+    private ThreadSampler() {
+        ThreadGroup group = Thread.currentThread().getThreadGroup();
+        while (group.getParent() != null) {
+            group = group.getParent();
+        }
+        rootGroup = group;
+    }
+
+    /** Registers a pool created for the current run, so steals made before it is first sampled still count. */
+    public static ForkJoinPool newPool(ForkJoinPool pool) {
+        NEW_POOLS.add(pool);
+        return pool;
+    }
+
+    public static ThreadSampler start() {
+        ThreadSampler sampler = new ThreadSampler();
+        sampler.begin();
+        return sampler;
+    }
+
+    private void begin() {
+        events = new RecordingStream();
+        events.enable("jdk.VirtualThreadStart");
+        events.enable("jdk.VirtualThreadPinned").withThreshold(PINNED_THRESHOLD);
+        events.onEvent("jdk.VirtualThreadStart", e -> virtualThreadsStarted.incrementAndGet());
+        events.onEvent("jdk.VirtualThreadPinned", e -> pinnedEvents.incrementAndGet());
+        events.startAsync();
+
+        sampler = MemoryMonitor.harnessThread(new Thread(this::sampleLoop, "thread-sampler"));
+        sampler.setDaemon(true);
+
+        NEW_POOLS.clear(); // anything registered before this run belongs to an earlier one
+        discoverPools();
+        threadBean.resetPeakThreadCount();
+        startedBaseline = threadBean.getTotalStartedThreadCount();
+        sampler.start();
+    }
+
+    public void stop(Metrics metrics) {
+        stopSampler();
+        discoverPools();
+
+        // stop() flushes and waits until the handlers have seen every event recorded so far
+        events.stop();
+        close();
+
+        long stealCount = 0;
+        for (Map.Entry<ForkJoinPool, Long> pool : stealBaselines.entrySet()) {
+            stealCount += pool.getKey().getStealCount() - pool.getValue();
+        }
+
+        metrics.peakPlatformThreads = threadBean.getPeakThreadCount();
+        metrics.platformThreadsStarted = threadBean.getTotalStartedThreadCount() - startedBaseline;
+        metrics.virtualThreadsStarted = virtualThreadsStarted.get();
+        metrics.peakCarrierThreads = peakCarriers;
+        metrics.forkJoinSteals = stealCount;
+        metrics.peakQueuedTasks = peakQueuedTasks;
+        metrics.pinnedEvents = pinnedEvents.get();
+        metrics.threadsCreated = metrics.platformThreadsStarted + metrics.virtualThreadsStarted;
+    }
+
+    /** Stops the sampler thread and closes the JFR stream; safe to call more than once. */
+    @Override
+    public void close() {
+        stopSampler();
+        events.close();
+    }
+
+    private void stopSampler() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(sampler);
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            LockSupport.parkNanos(SAMPLE_INTERVAL_NANOS);
+            discoverPools();
+        }
+    }
+
+    private void discoverPools() {
+        int count;
+        // enumerate() silently drops threads that do not fit, so grow until there is room to spare
+        while ((count = rootGroup.enumerate(threads, true)) == threads.length) {
+            threads = new Thread[threads.length * 2];
+        }
+        for (int i = 0; i < count; i++) {
+            if (threads[i] instanceof ForkJoinWorkerThread worker) {
+                stealBaselines.computeIfAbsent(worker.getPool(), ForkJoinPool::getStealCount);
+            }
+            threads[i] = null;
+        }
+        synchronized (NEW_POOLS) {
+            for (ForkJoinPool pool : NEW_POOLS) {
+                stealBaselines.put(pool, 0L);
+            }
+            NEW_POOLS.clear();
+        }
+
+        int carriers = 0;
+        long queued = 0;
+        for (ForkJoinPool pool : stealBaselines.keySet()) {
+            carriers += pool.getPoolSize();
+            queued += pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+        }
+        peakCarriers = Math.max(peakCarriers, carriers);
+        peakQueuedTasks = Math.max(peakQueuedTasks, queued);
+    }
+}